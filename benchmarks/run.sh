@@ -0,0 +1,13 @@
+#!/usr/bin/env sh
+# Builds the API and the benchmarks, then runs JMH and writes JSON results
+# to benchmarks/results/. Extra arguments are passed to JMH, e.g. a regexp
+# selecting benchmarks: ./benchmarks/run.sh Token
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q install -DskipTests
+mvn -B -q -f benchmarks/pom.xml package
+
+mkdir -p benchmarks/results
+java -jar benchmarks/target/benchmarks.jar \
+    -rf json -rff "benchmarks/results/jmh-$(date +%Y%m%d-%H%M%S).json" "$@"
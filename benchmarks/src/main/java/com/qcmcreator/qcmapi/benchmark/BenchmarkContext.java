@@ -0,0 +1,88 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.qcmcreator.qcmapi.QcmApiApplication;
+import com.qcmcreator.qcmapi.model.ERole;
+import com.qcmcreator.qcmapi.model.Role;
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.RoleRepository;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import com.qcmcreator.qcmapi.service.QuizService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Spring context backed by an embedded in-memory H2 and seeded with
+ * synthetic quizzes of the sizes the benchmarks ask for. Benchmarks that need
+ * application beans take this state as an argument of their {@code @Setup};
+ * JMH starts it before them and closes it at the end of the trial.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    public static final String USERNAME = "bench";
+
+    private ConfigurableApplicationContext context;
+    private Long userId;
+    private final Map<Integer, Long> quizIdsBySize = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(QcmApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        userId = createUser();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+        quizIdsBySize.clear();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public String property(String key) {
+        return context.getEnvironment().getProperty(key);
+    }
+
+    public Long userId() {
+        return userId;
+    }
+
+    // Seeds (once) a quiz with the given number of questions and returns its id
+    public synchronized Long quizWithQuestions(int questionCount) {
+        return quizIdsBySize.computeIfAbsent(questionCount, size -> {
+            SyntheticQuizGenerator generator = new SyntheticQuizGenerator(size);
+            return bean(QuizService.class).createQuiz(generator.quiz(size, 0.2), userId);
+        });
+    }
+
+    private Long createUser() {
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        Role role = roleRepository.findByName(ERole.USER)
+                .orElseGet(() -> roleRepository.save(new Role(ERole.USER)));
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setEmail("bench@example.com");
+        user.setPassword("benchmark");
+        user.setRoles(Set.of(role));
+        return context.getBean(UserRepository.class).save(user).getId();
+    }
+}
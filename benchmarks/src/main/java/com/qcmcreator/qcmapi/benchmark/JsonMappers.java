@@ -0,0 +1,22 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * ObjectMappers configured like Spring Boot's default one, for benchmarks that
+ * only serialize and so do not need an application context.
+ */
+final class JsonMappers {
+
+    private JsonMappers() {
+    }
+
+    static ObjectMapper json() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.service.CachedQuiz;
+import com.qcmcreator.qcmapi.service.QuizGraphLoader;
+import com.qcmcreator.qcmapi.service.QuizService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// DTO assembly from the database versus the cached, pre-serialized read path
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizAssemblyBenchmark {
+
+    @Param({"5", "50", "200"})
+    public int questions;
+
+    private QuizGraphLoader quizGraphLoader;
+    private QuizService quizService;
+    private Long quizId;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        quizGraphLoader = context.bean(QuizGraphLoader.class);
+        quizService = context.bean(QuizService.class);
+        quizId = context.quizWithQuestions(questions);
+    }
+
+    @Benchmark
+    public QuizDto assembleFromDatabase() {
+        return quizGraphLoader.loadById(quizId).orElseThrow();
+    }
+
+    @Benchmark
+    public CachedQuiz cachedPayload() {
+        return quizService.getQuizPayload(quizId);
+    }
+}
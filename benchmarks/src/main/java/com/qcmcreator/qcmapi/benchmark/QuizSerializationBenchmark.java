@@ -0,0 +1,43 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of QuizDto trees with a mapper configured like the application's
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizSerializationBenchmark {
+
+    @Param({"5", "50", "200"})
+    public int questions;
+
+    private ObjectMapper objectMapper;
+    private QuizDto quiz;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = JsonMappers.json();
+        quiz = new SyntheticQuizGenerator(questions).quiz(questions, 0.2);
+        json = objectMapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public QuizDto deserialize() throws IOException {
+        return objectMapper.readValue(json, QuizDto.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.qcmcreator.qcmapi.security.TokenClaims;
+import com.qcmcreator.qcmapi.security.TokenUtils;
+import com.qcmcreator.qcmapi.security.services.UserDetailsImpl;
+import com.qcmcreator.qcmapi.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT handling in TokenUtils, and the per-request authentication cost before
+ * and after the filter was reduced to a single cached verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private TokenUtils tokenUtils;
+    private UserDetailsServiceImpl userDetailsService;
+    private String secret;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        tokenUtils = context.bean(TokenUtils.class);
+        userDetailsService = context.bean(UserDetailsServiceImpl.class);
+        secret = context.property("jwt.secret");
+        token = tokenUtils.generateToken(BenchmarkContext.USERNAME, context.userId(), List.of("USER"));
+    }
+
+    @Benchmark
+    public String generate() {
+        return tokenUtils.generateToken(BenchmarkContext.USERNAME, 1L, List.of("USER"));
+    }
+
+    @Benchmark
+    public TokenClaims parseCached() {
+        return tokenUtils.parseToken(token).orElseThrow();
+    }
+
+    // Verification as TokenUtils used to do it: key and parser rebuilt on every call
+    @Benchmark
+    public Claims verifySignature() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Former request path: three parses with a rebuilt key each time, then a user lookup
+    @Benchmark
+    public UserDetails authenticateBefore() {
+        for (int i = 0; i < 2; i++) {
+            verifySignature();
+        }
+        String username = verifySignature().getSubject();
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    // Current request path: one cached parse, principal built from the claims
+    @Benchmark
+    public UserDetails authenticateAfter() {
+        return UserDetailsImpl.fromClaims(tokenUtils.parseToken(token).orElseThrow());
+    }
+}
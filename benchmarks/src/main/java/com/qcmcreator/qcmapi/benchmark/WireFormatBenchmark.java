@@ -0,0 +1,65 @@
+package com.qcmcreator.qcmapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode/decode cost of QuizDto trees as JSON, CBOR and Smile; payload sizes are printed at setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"5", "50", "200"})
+    public int questions;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private QuizDto quiz;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = JsonMappers.json();
+        mapper = switch (format) {
+            case "cbor" -> objectMapper.copyWith(new CBORFactory());
+            case "smile" -> objectMapper.copyWith(new SmileFactory());
+            default -> objectMapper;
+        };
+        quiz = new SyntheticQuizGenerator(questions).quiz(questions, 0.2);
+        encoded = mapper.writeValueAsBytes(quiz);
+        System.out.printf("%n%s, %d questions: %d bytes, %d bytes gzipped%n",
+                format, questions, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public QuizDto decode() throws IOException {
+        return mapper.readValue(encoded, QuizDto.class);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# Platform vs virtual threads: runs each scenario at 1k and 5k clients against
+# the seeded API started once per mode, and collects the driver's summary
+# tables plus the number of pinned-thread traces into one Markdown report.
+#
+#   loadtest/compare-threads.sh [duration-seconds] [scenario...]
+#
+# Needs JDK 21 (the virtual-threads build targets it) and runs from the
+# repository root. The report lands in loadtest/results/thread-comparison-<timestamp>.md.
+set -euo pipefail
+
+DURATION=${1:-60}
+shift || true
+SCENARIOS=${*:-read-heavy write-heavy}
+CLIENTS="1000 5000"
+BASE_URL=http://localhost:8080
+
+STAMP=$(date +%Y%m%d-%H%M%S)
+RESULTS=loadtest/results
+REPORT=$RESULTS/thread-comparison-$STAMP.md
+mkdir -p "$RESULTS"
+
+wait_for_api() {
+    for _ in $(seq 1 600); do
+        if curl -fs "$BASE_URL/actuator/health" | grep -q '"UP"'; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "API did not come up" >&2
+    return 1
+}
+
+run_mode() {
+    local mode=$1 maven_profile=$2 spring_profiles=$3 jvm_args=$4
+    local log=$RESULTS/server-$mode-$STAMP.log
+
+    mvn -B -q install -DskipTests $maven_profile
+    mvn -B -q -f loadtest/pom.xml package
+
+    # Seeding runs at startup, so both modes measure the same data
+    java $jvm_args -jar target/qcm-api-0.0.1-SNAPSHOT.jar --spring.profiles.active="$spring_profiles" > "$log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+    wait_for_api
+
+    echo "## $mode threads" >> "$REPORT"
+    echo >> "$REPORT"
+    for clients in $CLIENTS; do
+        for scenario in $SCENARIOS; do
+            echo "### $scenario, $clients clients" >> "$REPORT"
+            echo >> "$REPORT"
+            echo '```' >> "$REPORT"
+            java -jar loadtest/target/loadtest.jar --base-url="$BASE_URL" --scenario="$scenario" \
+                --clients="$clients" --duration="$DURATION" --results-dir="$RESULTS/$mode-$STAMP" \
+                | grep -v '^Histograms written' >> "$REPORT"
+            echo '```' >> "$REPORT"
+            echo >> "$REPORT"
+        done
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+
+    # -Djdk.tracePinnedThreads prints a stack per pinning; count them and list the frames holding monitors
+    if [ -n "$jvm_args" ]; then
+        echo "Pinned-thread traces: $(grep -c 'onPinned' "$log" || true)" >> "$REPORT"
+        echo >> "$REPORT"
+        echo '```' >> "$REPORT"
+        grep '<== monitors' "$log" | sed 's/^ *//' | sort | uniq -c | sort -rn | head -20 >> "$REPORT" || true
+        echo '```' >> "$REPORT"
+        echo >> "$REPORT"
+    fi
+}
+
+{
+    echo "# Platform vs virtual threads"
+    echo
+    echo "$(date -u +%Y-%m-%dT%H:%MZ), $(java -version 2>&1 | head -1), $(nproc) CPUs, ${DURATION}s per run after a 10s warm-up."
+    echo "Closed-loop clients; see loadtest/README.md. Latencies in milliseconds."
+    echo
+} > "$REPORT"
+
+run_mode platform "" seed ""
+run_mode virtual -Pvirtual-threads seed,vthreads -Djdk.tracePinnedThreads=short
+
+echo "Report written to $REPORT"
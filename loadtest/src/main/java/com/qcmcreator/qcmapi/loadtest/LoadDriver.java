@@ -0,0 +1,238 @@
+package com.qcmcreator.qcmapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.qcmcreator.qcmapi.loadtest.Scenario.Operation;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load driver. Each client runs on its own thread, logs in as
+ * one of the seeded {@code student<n>} users and issues operations from the
+ * scenario mix until the deadline. Latencies go into one HdrHistogram per
+ * operation; the warm-up period is excluded.
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar --scenario=read-heavy --clients=1000 --duration=60
+ * </pre>
+ */
+public class LoadDriver {
+    // Latencies are recorded in microseconds, up to one minute
+    private static final long MAX_LATENCY_MICROS = 60_000_000L;
+
+    private final ApiClient api;
+    private final Scenario scenario;
+    private final int clients;
+    private final int users;
+    private final String password;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final Path resultsDir;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final List<Long> quizIds = new ArrayList<>();
+    private volatile boolean measuring;
+
+    LoadDriver(Map<String, String> options) {
+        this.api = new ApiClient(options.getOrDefault("base-url", "http://localhost:8080"));
+        this.scenario = Scenario.parse(options.getOrDefault("scenario", "read-heavy"));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+        this.users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        this.password = options.getOrDefault("password", "password");
+        this.warmupMillis = Long.parseLong(options.getOrDefault("warmup", "10")) * 1000;
+        this.durationMillis = Long.parseLong(options.getOrDefault("duration", "60")) * 1000;
+        this.resultsDir = Path.of(options.getOrDefault("results-dir", "loadtest/results"));
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Usage: --base-url=URL --scenario=read-heavy|write-heavy|login-storm "
+                        + "--clients=N --duration=SECONDS --warmup=SECONDS --users=N --password=PWD --results-dir=DIR");
+                System.exit(2);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    void run() throws Exception {
+        loadQuizIds();
+        System.out.printf("Scenario %s, %d clients, %d quizzes known, warm-up %ds, measuring %ds%n",
+                scenario, clients, quizIds.size(), warmupMillis / 1000, durationMillis / 1000);
+
+        long start = System.currentTimeMillis();
+        long measureFrom = start + warmupMillis;
+        long deadline = measureFrom + durationMillis;
+
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            int clientIndex = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    runClient(clientIndex, deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Thread.sleep(Math.max(0, measureFrom - System.currentTimeMillis()));
+        for (Recorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+        measuring = true;
+        done.await();
+
+        report();
+    }
+
+    private void loadQuizIds() throws IOException, InterruptedException {
+        String token = api.login("student0", password);
+        String cursor = null;
+        while (quizIds.size() < 10_000) {
+            String path = "/api/quizzes/page?size=100" + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = api.getJson(path, token);
+            for (JsonNode item : page.get("items")) {
+                quizIds.add(item.get("id").asLong());
+            }
+            if (page.get("nextCursor").isNull()) {
+                break;
+            }
+            cursor = page.get("nextCursor").asText();
+        }
+    }
+
+    private void runClient(int clientIndex, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SyntheticQuizGenerator generator = new SyntheticQuizGenerator(clientIndex);
+        List<Long> ownQuizzes = new ArrayList<>();
+        String username = "student" + (clientIndex % users);
+        String token = null;
+
+        while (System.currentTimeMillis() < deadline) {
+            Operation operation = scenario.pick(random.nextInt(100));
+            long begin = System.nanoTime();
+            boolean ok;
+            try {
+                if (token == null && scenario.needsToken()) {
+                    token = api.login(username, password);
+                }
+                ok = execute(operation, token, random, generator, ownQuizzes);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = (System.nanoTime() - begin) / 1000;
+
+            if (measuring) {
+                recorders.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                if (!ok) {
+                    errors.get(operation).increment();
+                }
+            }
+        }
+    }
+
+    private boolean execute(Operation operation, String token, ThreadLocalRandom random,
+                            SyntheticQuizGenerator generator, List<Long> ownQuizzes) throws IOException, InterruptedException {
+        switch (operation) {
+            case GET_QUIZ: {
+                if (quizIds.isEmpty()) {
+                    return false;
+                }
+                // Cubic skew: a small set of recent quizzes receives most reads, like an exam window
+                int index = (int) (quizIds.size() * Math.pow(random.nextDouble(), 3));
+                // Students read the answer-free view; the authoring view is owner-only
+                return ok(api.send("GET", "/api/quizzes/" + quizIds.get(index) + "/student", token, null));
+            }
+            case LIST_PAGE:
+                return ok(api.send("GET", "/api/quizzes/page?size=20", token, null));
+            case CREATE_QUIZ: {
+                HttpResponse<String> response = api.send("POST", "/api/quizzes", token,
+                        generator.quiz(generator.skewedQuestionCount(20, 200), 0.2));
+                if (ok(response)) {
+                    ownQuizzes.add(api.objectMapper().readTree(response.body()).get("id").asLong());
+                    return true;
+                }
+                return false;
+            }
+            case UPDATE_QUIZ: {
+                if (ownQuizzes.isEmpty()) {
+                    return execute(Operation.CREATE_QUIZ, token, random, generator, ownQuizzes);
+                }
+                Long id = ownQuizzes.get(random.nextInt(ownQuizzes.size()));
+                return ok(api.send("PUT", "/api/quizzes/" + id, token,
+                        generator.quiz(generator.skewedQuestionCount(20, 200), 0.2)));
+            }
+            case LOGIN:
+                api.login("student" + random.nextInt(users), password);
+                return true;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private static boolean ok(HttpResponse<String> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 400;
+    }
+
+    private void report() throws IOException {
+        Path runDir = resultsDir.resolve(scenario.name().toLowerCase() + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(runDir);
+
+        double seconds = durationMillis / 1000.0;
+        System.out.printf("%-12s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-12s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation,
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds,
+                    errors.get(operation).sum(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+
+            // Full distribution in milliseconds, loadable in HdrHistogram's plotter
+            try (PrintStream out = new PrintStream(Files.newOutputStream(runDir.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Histograms written to " + runDir);
+    }
+}
@@ -0,0 +1,45 @@
+package com.qcmcreator.qcmapi.loadtest;
+
+// Operation mixes, in percent; each client draws its next operation from the mix
+enum Scenario {
+    READ_HEAVY(new Operation[]{Operation.GET_QUIZ, Operation.LIST_PAGE, Operation.CREATE_QUIZ},
+            new int[]{85, 14, 1}),
+    WRITE_HEAVY(new Operation[]{Operation.CREATE_QUIZ, Operation.UPDATE_QUIZ, Operation.GET_QUIZ},
+            new int[]{40, 40, 20}),
+    LOGIN_STORM(new Operation[]{Operation.LOGIN},
+            new int[]{100});
+
+    enum Operation {
+        GET_QUIZ, LIST_PAGE, CREATE_QUIZ, UPDATE_QUIZ, LOGIN
+    }
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Scenario(Operation[] operations, int[] weights) {
+        this.operations = operations;
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    Operation pick(int percent) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (percent < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    boolean needsToken() {
+        return this != LOGIN_STORM;
+    }
+
+    static Scenario parse(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
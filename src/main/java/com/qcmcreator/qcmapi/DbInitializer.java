@@ -1,25 +1,86 @@
-
 package com.qcmcreator.qcmapi;
 
 import com.qcmcreator.qcmapi.model.ERole;
 import com.qcmcreator.qcmapi.model.Role;
+import com.qcmcreator.qcmapi.model.User;
 import com.qcmcreator.qcmapi.repository.RoleRepository;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.security.services.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class DbInitializer implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DbInitializer.class);
 
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Bootstrap administrator; nothing is done while the username is empty
+    @Value("${admin.username}")
+    private String adminUsername;
+
+    @Value("${admin.email}")
+    private String adminEmail;
+
+    @Value("${admin.password}")
+    private String adminPassword;
+
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
         // Initialize roles
-        if (roleRepository.count() == 0) {
-            Role userRole = new Role(ERole.USER);
-            roleRepository.save(userRole);
+        for (ERole name : ERole.values()) {
+            if (roleRepository.findByName(name).isEmpty()) {
+                roleRepository.save(new Role(name));
+            }
+        }
+
+        if (!adminUsername.isBlank()) {
+            bootstrapAdmin();
+        }
+    }
+
+    /**
+     * Grants ADMIN to the configured user, creating it first if it does not
+     * exist. An existing user keeps its password; a new one needs
+     * admin.password.
+     */
+    private void bootstrapAdmin() {
+        Role admin = roleRepository.findByName(ERole.ADMIN)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+        User user = userRepository.findByUsername(adminUsername).orElse(null);
+        if (user == null) {
+            if (adminPassword.isBlank()) {
+                throw new IllegalStateException("admin.password is required to create the admin user " + adminUsername);
+            }
+            user = new User();
+            user.setUsername(adminUsername);
+            user.setEmail(adminEmail.isBlank() ? adminUsername + "@localhost" : adminEmail);
+            user.setPassword(passwordEncoder.encode(adminPassword));
+            roleRepository.findByName(ERole.USER).ifPresent(user.getRoles()::add);
+        } else if (user.getRoles().contains(admin)) {
+            return;
         }
+        user.getRoles().add(admin);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(adminUsername));
+        logger.info("Granted ADMIN to {}", adminUsername);
     }
 }
@@ -0,0 +1,33 @@
+
+package com.qcmcreator.qcmapi.config;
+
+import com.qcmcreator.qcmapi.metrics.QueryTracker;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+    // Routes every JDBC execution through the QueryTracker listener
+    @Bean
+    public static BeanPostProcessor queryTrackingDataSourcePostProcessor(ObjectProvider<QueryTracker> queryTracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(queryTracker.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.qcmcreator.qcmapi.config;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashes the passwords stored before registration hashed them: rows without
+ * a {bcrypt} prefix, which hold the password itself. Afterwards every row is
+ * a BCrypt hash, so the password encoder no longer accepts plain text. A
+ * Spring bean rather than a class under db/migration so it hashes with the
+ * configured cost; Flyway picks up JavaMigration beans.
+ */
+@Component
+public class V4__Hash_legacy_passwords extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 500;
+    private static final String NOOP_PREFIX = "{noop}";
+
+    @Value("${security.password.bcrypt-strength}")
+    private int bcryptStrength;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Connection connection = context.getConnection();
+
+        List<Long> ids = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("select id, password from users where password not like '{bcrypt}%'");
+             PreparedStatement update = connection.prepareStatement("update users set password = ? where id = ?")) {
+            while (rows.next()) {
+                String password = rows.getString(2);
+                ids.add(rows.getLong(1));
+                passwords.add(password.startsWith(NOOP_PREFIX) ? password.substring(NOOP_PREFIX.length()) : password);
+                if (ids.size() == BATCH_SIZE) {
+                    hash(bcrypt, update, ids, passwords);
+                }
+            }
+            hash(bcrypt, update, ids, passwords);
+        }
+    }
+
+    // BCrypt is deliberately slow, so a batch is hashed on all cores
+    private static void hash(BCryptPasswordEncoder bcrypt, PreparedStatement update, List<Long> ids,
+                             List<String> passwords) throws Exception {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> hashes = passwords.parallelStream().map(password -> "{bcrypt}" + bcrypt.encode(password)).toList();
+        for (int i = 0; i < ids.size(); i++) {
+            update.setString(1, hashes.get(i));
+            update.setLong(2, ids.get(i));
+            update.addBatch();
+        }
+        update.executeBatch();
+        ids.clear();
+        passwords.clear();
+    }
+}
@@ -0,0 +1,81 @@
+
+package com.qcmcreator.qcmapi.controller;
+
+import com.qcmcreator.qcmapi.dto.request.AnswerSubmission;
+import com.qcmcreator.qcmapi.dto.request.StartAttemptRequest;
+import com.qcmcreator.qcmapi.dto.response.AttemptResponse;
+import com.qcmcreator.qcmapi.dto.response.MessageResponse;
+import com.qcmcreator.qcmapi.security.services.UserDetailsImpl;
+import com.qcmcreator.qcmapi.service.AttemptService;
+import com.qcmcreator.qcmapi.service.WriteBehindFullException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@CrossOrigin(maxAge = 3600)
+@RestController
+@RequestMapping("/api/attempts")
+public class AttemptController {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @PostMapping
+    public ResponseEntity<?> startAttempt(@RequestBody StartAttemptRequest request, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Optional<AttemptResponse> attempt = attemptService.startAttempt(request.getQuizId(), request.getQuestionCount(), userDetails.getId());
+        if (attempt.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Quiz not found!"));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(attempt.get());
+    }
+
+    @GetMapping("/{id}/quiz")
+    public ResponseEntity<?> getDelivery(@PathVariable Long id, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        try {
+            return ResponseEntity.of(attemptService.getDelivery(id, userDetails.getId()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/answers")
+    public ResponseEntity<?> submitAnswers(@PathVariable Long id, @RequestBody List<AnswerSubmission> answers,
+                                           Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        try {
+            return ResponseEntity.of(attemptService.submitAnswers(id, answers, userDetails.getId()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/finish")
+    public ResponseEntity<AttemptResponse> finishAttempt(@PathVariable Long id, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.of(attemptService.finishAttempt(id, userDetails.getId()));
+    }
+
+    // Backpressure from the attempt write buffer
+    @ExceptionHandler(WriteBehindFullException.class)
+    public ResponseEntity<MessageResponse> handleWriteBehindFull(WriteBehindFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many submissions, retry shortly"));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AttemptResponse> getAttempt(@PathVariable Long id, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.of(attemptService.getAttempt(id, userDetails.getId()));
+    }
+}
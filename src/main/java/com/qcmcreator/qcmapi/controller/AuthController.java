@@ -1,99 +1,129 @@
 
 package com.qcmcreator.qcmapi.controller;
 
+import com.qcmcreator.qcmapi.dto.request.BatchSignupRequest;
 import com.qcmcreator.qcmapi.dto.request.LoginRequest;
 import com.qcmcreator.qcmapi.dto.request.SignupRequest;
+import com.qcmcreator.qcmapi.dto.response.BatchSignupResponse;
 import com.qcmcreator.qcmapi.dto.response.JwtResponse;
 import com.qcmcreator.qcmapi.dto.response.MessageResponse;
 import com.qcmcreator.qcmapi.dto.response.UserResponse;
-import com.qcmcreator.qcmapi.model.ERole;
-import com.qcmcreator.qcmapi.model.Role;
-import com.qcmcreator.qcmapi.model.User;
-import com.qcmcreator.qcmapi.repository.RoleRepository;
-import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.security.TokenClaims;
 import com.qcmcreator.qcmapi.security.TokenUtils;
+import com.qcmcreator.qcmapi.security.services.CachedUserDetailsService;
+import com.qcmcreator.qcmapi.security.services.PasswordVerificationService;
+import com.qcmcreator.qcmapi.security.services.RegistrationService;
+import com.qcmcreator.qcmapi.security.services.UserDetailsImpl;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     
     @Autowired
-    private UserRepository userRepository;
-
+    private TokenUtils tokenUtils;
+    
     @Autowired
-    private RoleRepository roleRepository;
+    private CachedUserDetailsService userDetailsService;
     
     @Autowired
-    private TokenUtils tokenUtils;
+    private PasswordVerificationService passwordVerificationService;
+    
+    @Autowired
+    private RegistrationService registrationService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElse(null);
-        
-        if (user == null || !loginRequest.getPassword().equals(user.getPassword())) {
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Invalid username or password!"));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        CompletableFuture<Optional<UserDetailsImpl>> verification;
+        try {
+            // Hashing runs on its own bounded pool; the request thread is released meanwhile
+            verification = passwordVerificationService.verify(loginRequest.getUsername(), loginRequest.getPassword());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyLogins());
         }
 
-        String token = tokenUtils.generateToken(user.getUsername(), user.getId());
-        
-        List<String> roles = user.getRoles().stream()
-                .map(role -> role.getName().name())
-                .collect(Collectors.toList());
+        return verification.<ResponseEntity<?>>thenApply(user -> {
+            if (user.isEmpty()) {
+                return ResponseEntity
+                        .badRequest()
+                        .body(new MessageResponse("Error: Invalid username or password!"));
+            }
+
+            List<String> roles = user.get().getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+
+            String token = tokenUtils.generateToken(user.get().getUsername(), user.get().getId(), roles);
+
+            return ResponseEntity.ok(new JwtResponse(
+                    token,
+                    user.get().getId(),
+                    user.get().getUsername(),
+                    user.get().getEmail(),
+                    roles));
+        }).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                return tooManyLogins();
+            }
+            throw e instanceof CompletionException completion ? completion : new CompletionException(cause);
+        });
+    }
 
-        return ResponseEntity.ok(new JwtResponse(
-                token,
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                roles));
+    private static ResponseEntity<?> tooManyLogins() {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many login attempts, retry shortly"));
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
+        Optional<String> conflict = registrationService.register(signUpRequest);
+        if (conflict.isPresent()) {
             return ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Username is already taken!"));
+                    .body(new MessageResponse("Error: " + conflict.get()));
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Email is already in use!"));
-        }
-
-        // Create new user account
-        User user = new User();
-        user.setUsername(signUpRequest.getUsername());
-        user.setEmail(signUpRequest.getEmail());
-        user.setPassword(signUpRequest.getPassword());  // Note: In a real app, you should hash this password
-
-        Set<Role> roles = new HashSet<>();
-        Role userRole = roleRepository.findByName(ERole.USER)
-                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-        roles.add(userRole);
-        user.setRoles(roles);
-        
-        userRepository.save(user);
-
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
     
+    // All or nothing: any conflict rejects the whole batch
+    @PostMapping("/register/batch")
+    public ResponseEntity<BatchSignupResponse> registerUsers(@Valid @RequestBody BatchSignupRequest batchRequest) {
+        try {
+            List<String> conflicts = registrationService.registerAll(batchRequest.getUsers());
+            if (!conflicts.isEmpty()) {
+                return ResponseEntity.badRequest().body(new BatchSignupResponse(0, conflicts));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A conflicting user was registered concurrently
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new BatchSignupResponse(0, List.of("Username or email is already taken")));
+        }
+        return ResponseEntity.ok(new BatchSignupResponse(batchRequest.getUsers().size(), List.of()));
+    }
+    
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
@@ -101,18 +131,19 @@ public class AuthController {
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
             String token = headerAuth.substring(7);
             
-            if (tokenUtils.validateToken(token)) {
-                String username = tokenUtils.getUsernameFromToken(token);
-                Long userId = tokenUtils.getUserIdFromToken(token);
-                
-                User user = userRepository.findByUsername(username).orElse(null);
-                
-                if (user != null) {
+            // Single parse: signature verified once, claims served from the token cache afterwards
+            Optional<TokenClaims> claims = tokenUtils.parseToken(token);
+            
+            if (claims.isPresent()) {
+                try {
+                    UserDetailsImpl user = userDetailsService.loadUserByUsername(claims.get().getUsername());
                     return ResponseEntity.ok(new UserResponse(
                             user.getId(), 
                             user.getUsername(), 
                             user.getEmail()
                     ));
+                } catch (UsernameNotFoundException e) {
+                    // Fall through to 401
                 }
             }
         }
@@ -2,22 +2,43 @@
 package com.qcmcreator.qcmapi.controller;
 
 import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.dto.request.QuestionPatchRequest;
+import com.qcmcreator.qcmapi.dto.request.QuizFilter;
+import com.qcmcreator.qcmapi.dto.response.CacheStatsResponse;
 import com.qcmcreator.qcmapi.dto.response.MessageResponse;
+import com.qcmcreator.qcmapi.dto.response.QuizImportResponse;
+import com.qcmcreator.qcmapi.dto.response.QuizPageResponse;
+import com.qcmcreator.qcmapi.metrics.QueryBudget;
 import com.qcmcreator.qcmapi.model.Option;
 import com.qcmcreator.qcmapi.model.Question;
+import com.qcmcreator.qcmapi.model.QuestionType;
 import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.model.Technology;
 import com.qcmcreator.qcmapi.security.services.UserDetailsImpl;
+import com.qcmcreator.qcmapi.service.CachedQuiz;
 import com.qcmcreator.qcmapi.service.QuizService;
+import com.qcmcreator.qcmapi.service.QuizTransferService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(maxAge = 3600)
 @RestController
 @RequestMapping("/api/quizzes")
 public class QuizController {
@@ -25,18 +46,107 @@ public class QuizController {
     @Autowired
     private QuizService quizService;
     
+    @Autowired
+    private QuizTransferService quizTransferService;
+    
+    // The caller's own quizzes, answers included
     @GetMapping
-    public ResponseEntity<List<QuizDto>> getAllQuizzes() {
-        return ResponseEntity.ok(quizService.getAllQuizzes());
+    @QueryBudget(2)
+    public ResponseEntity<List<QuizDto>> getAllQuizzes(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.ok(quizService.getQuizzesOwnedBy(userDetails.getId()));
+    }
+    
+    @GetMapping("/page")
+    @QueryBudget(1)
+    public ResponseEntity<?> getQuizPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         @RequestParam(required = false) Technology technology,
+                                         @RequestParam(required = false) Long ownerId,
+                                         @RequestParam(required = false) QuestionType questionType) {
+        try {
+            QuizFilter filter = new QuizFilter(technology, ownerId, questionType);
+            QuizPageResponse page = quizService.getQuizPage(filter, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor!"));
+        }
+    }
+    
+    @GetMapping("/search")
+    @QueryBudget(0)
+    public ResponseEntity<List<QuizSummaryDto>> searchQuizzes(@RequestParam("q") String query,
+                                                              @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(quizService.searchQuizzes(query, limit));
     }
     
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportQuizzes(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        StreamingResponseBody body = out -> quizTransferService.exportTo(out, userDetails.getId());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"quizzes.ndjson\"")
+                .body(body);
+    }
+    
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/json"})
+    public ResponseEntity<QuizImportResponse> importQuizzes(HttpServletRequest request, Authentication authentication) throws IOException {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        QuizImportResponse result = quizTransferService.importFrom(request.getInputStream(), userDetails.getId());
+        if (result.getError() != null) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(quizService.getCacheStats());
+    }
+    
+    // Authoring view, answers included; only for the quiz's owner, everyone else uses /student
     @GetMapping("/{id}")
-    public ResponseEntity<?> getQuizById(@PathVariable Long id) {
-        QuizDto quizDto = quizService.getQuizById(id);
-        if (quizDto != null) {
-            return ResponseEntity.ok(quizDto);
+    @QueryBudget(2)
+    public ResponseEntity<?> getQuizById(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         Authentication authentication) {
+        CachedQuiz cached = quizService.getQuizPayload(id);
+        if (cached == null) {
+            return ResponseEntity.notFound().build();
+        }
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        if (!userDetails.getId().equals(cached.getQuiz().getOwnerId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("Error: Only the quiz owner can see its answers!"));
         }
-        return ResponseEntity.notFound().build();
+        
+        // Pre-serialized bytes; Spring answers If-None-Match with a 304 based on the ETag
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (prefersCbor(accept)) {
+            return response.contentType(MediaType.APPLICATION_CBOR)
+                    .eTag(cached.getCborEtag())
+                    .body(cached.getCbor());
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (cached.getGzipJson() != null && acceptsGzip(acceptEncoding)) {
+            return response.eTag(cached.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(cached.getGzipJson());
+        }
+        return response.eTag(cached.getEtag()).body(cached.getJson());
+    }
+    
+    // The quiz as handed to someone taking it: no answer keys
+    @GetMapping("/{id}/student")
+    @QueryBudget(3)
+    public ResponseEntity<?> getStudentQuiz(@PathVariable Long id) {
+        StudentQuizDto quiz = quizService.getStudentQuiz(id);
+        if (quiz == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(quiz);
     }
     
     @PostMapping
@@ -58,6 +168,22 @@ public class QuizController {
         return ResponseEntity.badRequest().body(new MessageResponse("Failed to update quiz"));
     }
     
+    @PatchMapping(value = "/{id}/questions/{questionId}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<?> patchQuestion(@PathVariable Long id, @PathVariable Long questionId,
+                                           @RequestBody QuestionPatchRequest patch, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        boolean patched;
+        try {
+            patched = quizService.patchQuestion(id, questionId, patch, userDetails.getId());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+        if (patched) {
+            return ResponseEntity.ok(new MessageResponse("Question updated successfully"));
+        }
+        return ResponseEntity.badRequest().body(new MessageResponse("Failed to update question"));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteQuiz(@PathVariable Long id, Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -67,4 +193,44 @@ public class QuizController {
         }
         return ResponseEntity.badRequest().body(new MessageResponse("Failed to delete quiz"));
     }
+    
+    // CBOR only when the client ranks it above JSON; wildcards keep the JSON default
+    private static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        // Stable sort, so equal qualities keep the client's order
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                break;
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -1,6 +1,7 @@
 
 package com.qcmcreator.qcmapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.qcmcreator.qcmapi.model.Technology;
 import lombok.Data;
 
@@ -15,4 +16,7 @@ public class QuizDto {
     private Technology technology;
     private LocalDateTime createdAt;
     private List<QuestionDto> questions;
+    // Never serialized; decides who may see the answers
+    @JsonIgnore
+    private Long ownerId;
 }
@@ -0,0 +1,20 @@
+
+package com.qcmcreator.qcmapi.dto;
+
+import com.qcmcreator.qcmapi.model.Technology;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryDto {
+    private Long id;
+    private String title;
+    private Technology technology;
+    private LocalDateTime createdAt;
+    private Long questionCount;
+}
@@ -0,0 +1,15 @@
+
+package com.qcmcreator.qcmapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Option as shown to students: no correctness flag
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentOptionDto {
+    private Long id;
+    private String text;
+}
@@ -0,0 +1,21 @@
+
+package com.qcmcreator.qcmapi.dto;
+
+import com.qcmcreator.qcmapi.model.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Question as shown to students: no direct answer
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentQuestionDto {
+    private Long id;
+    private String text;
+    private String imageUrl;
+    private QuestionType questionType;
+    private List<StudentOptionDto> options;
+}
@@ -0,0 +1,20 @@
+
+package com.qcmcreator.qcmapi.dto;
+
+import com.qcmcreator.qcmapi.model.Technology;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentQuizDto {
+    private Long id;
+    private String title;
+    private String description;
+    private Technology technology;
+    private List<StudentQuestionDto> questions;
+}
@@ -0,0 +1,14 @@
+
+package com.qcmcreator.qcmapi.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+// One answer; optionIds for multiple choice questions, directAnswer otherwise
+@Data
+public class AnswerSubmission {
+    private Long questionId;
+    private List<Long> optionIds;
+    private String directAnswer;
+}
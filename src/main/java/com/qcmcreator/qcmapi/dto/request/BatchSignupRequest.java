@@ -0,0 +1,16 @@
+
+package com.qcmcreator.qcmapi.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchSignupRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid SignupRequest> users;
+}
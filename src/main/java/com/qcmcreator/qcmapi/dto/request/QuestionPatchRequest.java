@@ -0,0 +1,22 @@
+package com.qcmcreator.qcmapi.dto.request;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Merge-patch body for a single question. A null field was absent from the
+ * body and is left unchanged; an empty Optional was an explicit JSON null and
+ * removes the value.
+ */
+@Data
+public class QuestionPatchRequest {
+    private Optional<String> text;
+    private Optional<String> imageUrl;
+    private Optional<QuestionType> questionType;
+    private Optional<String> directAnswer;
+    private Optional<List<OptionDto>> options;
+}
@@ -0,0 +1,19 @@
+
+package com.qcmcreator.qcmapi.dto.request;
+
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Technology;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Optional listing filters; null fields do not restrict the result
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizFilter {
+    private Technology technology;
+    private Long ownerId;
+    // Keeps quizzes with at least one question of this type
+    private QuestionType questionType;
+}
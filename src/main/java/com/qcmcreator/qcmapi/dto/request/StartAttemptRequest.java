@@ -0,0 +1,11 @@
+
+package com.qcmcreator.qcmapi.dto.request;
+
+import lombok.Data;
+
+@Data
+public class StartAttemptRequest {
+    private Long quizId;
+    // Optional: deliver a random sample of this many questions
+    private Integer questionCount;
+}
@@ -0,0 +1,21 @@
+
+package com.qcmcreator.qcmapi.dto.response;
+
+import com.qcmcreator.qcmapi.model.AttemptStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// The score is only filled in once the attempt is finished
+@Data
+@AllArgsConstructor
+public class AttemptResponse {
+    private Long id;
+    private Long quizId;
+    private AttemptStatus status;
+    private Integer score;
+    private int maxScore;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+
+package com.qcmcreator.qcmapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Nothing is registered when conflicts is non-empty
+@Data
+@AllArgsConstructor
+public class BatchSignupResponse {
+    private int registered;
+    private List<String> conflicts;
+}
@@ -0,0 +1,16 @@
+
+package com.qcmcreator.qcmapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private long entries;
+    private long weightBytes;
+}
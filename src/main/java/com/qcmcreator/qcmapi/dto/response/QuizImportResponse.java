@@ -0,0 +1,14 @@
+
+package com.qcmcreator.qcmapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Error is set when the import stopped at an invalid or unsaveable quiz, with its line; quizzes before it stay imported
+@Data
+@AllArgsConstructor
+public class QuizImportResponse {
+    private long imported;
+    private long questions;
+    private String error;
+}
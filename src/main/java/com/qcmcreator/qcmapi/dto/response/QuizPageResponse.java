@@ -0,0 +1,15 @@
+
+package com.qcmcreator.qcmapi.dto.response;
+
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class QuizPageResponse {
+    private List<QuizSummaryDto> items;
+    private String nextCursor;
+}
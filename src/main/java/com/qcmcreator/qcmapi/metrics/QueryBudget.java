@@ -0,0 +1,24 @@
+package com.qcmcreator.qcmapi.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * SQL budget of one handler method, checked by {@link QueryTrackingFilter}
+ * instead of the configured default. Budgets describe the worst case of a
+ * single request, i.e. with every cache on its path cold.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+
+    // Most statements one request may execute
+    int value();
+
+    // Executions of one statement with different parameters before it is reported as N+1; negative uses the default
+    int repeatedStatements() default -1;
+}
@@ -0,0 +1,9 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+// Raised when a tracked scope issues more SQL than allowed or repeats a statement N+1 style
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+// Number of SQL statements issued so far on the current thread
+public final class QueryCounter {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private QueryCounter() {
+    }
+
+    public static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
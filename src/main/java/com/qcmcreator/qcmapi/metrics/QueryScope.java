@@ -0,0 +1,108 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Statements executed on one thread between {@link QueryTracker#open()} and
+ * {@link #close()}. Integration tests use it as a query budget (see
+ * {@code QueryBudgetIntegrationTest}):
+ *
+ * <pre>
+ * try (QueryScope scope = QueryTracker.open()) {
+ *     mockMvc.perform(get("/api/quizzes/1"));
+ *     scope.assertStatementsAtMost(2);
+ *     scope.assertNoRepeatedStatements(1);
+ * }
+ * </pre>
+ *
+ * Executions of one SQL string are told apart by their bound parameters: the
+ * same statement with different parameters is the N+1 pattern, the same
+ * statement with the same parameters is a duplicate round trip.
+ */
+public class QueryScope implements AutoCloseable {
+    // Async tasks of a request record from their own thread
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong elapsedMs = new AtomicLong();
+    private final Map<String, StatementStats> statsBySql = new ConcurrentHashMap<>();
+
+    void record(String sql, int parametersHash, long elapsed) {
+        statements.incrementAndGet();
+        elapsedMs.addAndGet(elapsed);
+        statsBySql.computeIfAbsent(sql, key -> new StatementStats()).record(parametersHash);
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs.get();
+    }
+
+    // Statements executed with more than threshold distinct parameter sets, most repeated first
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        return sortedOver(threshold, StatementStats::distinctParameterSets);
+    }
+
+    // Statements executed more than once with identical parameters, with the number of wasted executions
+    public Map<String, Integer> duplicateStatements() {
+        return sortedOver(0, StatementStats::duplicates);
+    }
+
+    public void assertStatementsAtMost(int budget) {
+        int statements = getStatements();
+        if (statements > budget) {
+            throw new QueryBudgetExceededException(
+                    "Expected at most " + budget + " SQL statements but " + statements + " were executed");
+        }
+    }
+
+    public void assertNoRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = repeatedStatements(threshold);
+        if (!repeated.isEmpty()) {
+            Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+            throw new QueryBudgetExceededException(
+                    "N+1 pattern: statement executed with " + worst.getValue() + " parameter sets: " + worst.getKey());
+        }
+    }
+
+    @Override
+    public void close() {
+        QueryTracker.close(this);
+    }
+
+    private Map<String, Integer> sortedOver(int threshold, ToIntFunction<StatementStats> measure) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        statsBySql.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), measure.applyAsInt(entry.getValue())))
+                .filter(entry -> entry.getValue() > threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private static class StatementStats {
+        private final AtomicInteger executions = new AtomicInteger();
+        private final Set<Integer> parameterSets = ConcurrentHashMap.newKeySet();
+
+        void record(int parametersHash) {
+            executions.incrementAndGet();
+            parameterSets.add(parametersHash);
+        }
+
+        int distinctParameterSets() {
+            return parameterSets.size();
+        }
+
+        int duplicates() {
+            return executions.get() - parameterSets.size();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.qcmcreator.qcmapi.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Attaches the request's {@link QueryScope} to the thread running an async
+ * handler task (a {@code Callable} or {@code StreamingResponseBody}), so its
+ * SQL counts toward the request that started it.
+ */
+public class QueryScopeCallableInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        QueryScope scope = scopeOf(request);
+        if (scope != null) {
+            QueryTracker.attach(scope);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        QueryScope scope = scopeOf(request);
+        if (scope != null) {
+            QueryTracker.close(scope);
+        }
+    }
+
+    private static QueryScope scopeOf(NativeWebRequest request) {
+        HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+        return servletRequest != null ? QueryTrackingFilter.scopeOf(servletRequest) : null;
+    }
+}
@@ -0,0 +1,87 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * datasource-proxy listener that sees every JDBC execution. It feeds the
+ * per-thread {@link QueryCounter}, records statements into the open
+ * {@link QueryScope}s of the current thread and logs slow statements.
+ */
+@Component
+public class QueryTracker implements QueryExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(QueryTracker.class);
+
+    private static final ThreadLocal<List<QueryScope>> SCOPES = ThreadLocal.withInitial(ArrayList::new);
+
+    @Value("${qcm.query-tracker.slow-query-ms}")
+    private long slowQueryMs;
+
+    public static QueryScope open() {
+        QueryScope scope = new QueryScope();
+        attach(scope);
+        return scope;
+    }
+
+    // Binds an existing scope to the current thread too, e.g. an async task working for a request
+    static void attach(QueryScope scope) {
+        SCOPES.get().add(scope);
+    }
+
+    static void close(QueryScope scope) {
+        List<QueryScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryCounter.increment();
+
+        // A JDBC batch is one round trip; key it by its first statement
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        long elapsed = execInfo.getElapsedTime();
+
+        List<QueryScope> scopes = SCOPES.get();
+        if (!scopes.isEmpty()) {
+            int parametersHash = parametersHash(queryInfoList);
+            for (int i = 0; i < scopes.size(); i++) {
+                scopes.get(i).record(sql, parametersHash, elapsed);
+            }
+        }
+
+        if (elapsed >= slowQueryMs) {
+            logger.warn("Slow SQL ({} ms, batch size {}): {}", elapsed, execInfo.getBatchSize(), sql);
+        }
+    }
+
+    // Hash of the values bound to every statement of the execution
+    private static int parametersHash(List<QueryInfo> queryInfoList) {
+        int hash = 1;
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
+                for (ParameterSetOperation parameter : parameters) {
+                    hash = 31 * hash + Arrays.deepHashCode(parameter.getArgs());
+                }
+            }
+        }
+        return hash;
+    }
+}
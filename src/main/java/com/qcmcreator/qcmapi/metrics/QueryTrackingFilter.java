@@ -0,0 +1,111 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Tracks the SQL issued by each API request and reports requests over the
+ * statement budget of their handler ({@link QueryBudget}, or the configured
+ * default) or repeating one statement with different parameters (the N+1
+ * pattern). Logs in production; throws when
+ * {@code qcm.query-tracker.fail-on-violation} is set, so integration tests
+ * fail instead. Statements of async tasks run for the request
+ * ({@link QueryScopeCallableInterceptor}) count toward it.
+ */
+@Component
+public class QueryTrackingFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryTrackingFilter.class);
+    private static final String SCOPE_ATTRIBUTE = QueryTrackingFilter.class.getName() + ".SCOPE";
+
+    @Value("${qcm.query-tracker.request-budget}")
+    private int requestBudget;
+
+    @Value("${qcm.query-tracker.repeated-statement-threshold}")
+    private int repeatedStatementThreshold;
+
+    @Value("${qcm.query-tracker.fail-on-violation}")
+    private boolean failOnViolation;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // One scope per request, across its async dispatch and the async tasks in between
+        QueryScope scope = (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            scope = new QueryScope();
+            request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        }
+        QueryTracker.attach(scope);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryTracker.close(scope);
+        }
+        if (!isAsyncStarted(request)) {
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryScope scope) {
+        String endpoint = request.getMethod() + " " + request.getRequestURI();
+        logger.debug("{}: {} SQL statements in {} ms", endpoint, scope.getStatements(), scope.getElapsedMs());
+
+        // Handlers may declare their own budget; the handler is known once the dispatcher has run
+        int budget = requestBudget;
+        int repeatThreshold = repeatedStatementThreshold;
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget declared = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (declared != null) {
+                budget = declared.value();
+                if (declared.repeatedStatements() >= 0) {
+                    repeatThreshold = declared.repeatedStatements();
+                }
+            }
+        }
+
+        Map<String, Integer> repeated = scope.repeatedStatements(repeatThreshold);
+        for (Map.Entry<String, Integer> entry : repeated.entrySet()) {
+            logger.warn("Possible N+1 on {}: statement executed with {} parameter sets: {}", endpoint, entry.getValue(), entry.getKey());
+        }
+        for (Map.Entry<String, Integer> entry : scope.duplicateStatements().entrySet()) {
+            logger.debug("{} repeated a statement with identical parameters {} times: {}", endpoint, entry.getValue(), entry.getKey());
+        }
+        if (scope.getStatements() > budget) {
+            logger.warn("{} exceeded its query budget: {} statements (budget {})", endpoint, scope.getStatements(), budget);
+        }
+
+        if (failOnViolation) {
+            scope.assertNoRepeatedStatements(repeatThreshold);
+            scope.assertStatementsAtMost(budget);
+        }
+    }
+
+    static QueryScope scopeOf(HttpServletRequest request) {
+        return (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    // Reported once async processing is complete, not after the first dispatch
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public QuizService method and records how many SQL statements
+ * each call issued, tagged by method name.
+ */
+@Aspect
+@Component
+public class QuizServiceMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.qcmcreator.qcmapi.service.QuizService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long queriesBefore = QueryCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("qcm.quiz.service", "method", method, "outcome", outcome));
+            DistributionSummary.builder("qcm.quiz.service.queries")
+                    .description("SQL statements per QuizService call")
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(QueryCounter.current() - queriesBefore);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+
+package com.qcmcreator.qcmapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the size of every API response body, before any transport
+ * compression, tagged by route template and status. Async and streaming
+ * responses are recorded when their async dispatch completes.
+ */
+@Component
+public class ResponseSizeFilter extends OncePerRequestFilter {
+    private static final String COUNTER_ATTRIBUTE = ResponseSizeFilter.class.getName() + ".COUNTER";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Async requests come back here on the async dispatch; the body may have been written in between
+        CountingResponseWrapper counting = (CountingResponseWrapper) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counting == null) {
+            counting = new CountingResponseWrapper(response);
+            request.setAttribute(COUNTER_ATTRIBUTE, counting);
+        }
+        // An async dispatch usually carries the wrappers given to startAsync, ours included
+        HttpServletResponse target = WebUtils.getNativeResponse(response, CountingResponseWrapper.class) != null
+                ? response
+                : counting;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            counting.flushWriter();
+            if (!isAsyncStarted(request)) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("qcm.http.response.size")
+                        .baseUnit("bytes")
+                        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                        .tag("status", String.valueOf(counting.getStatus()))
+                        .register(meterRegistry)
+                        .record(counting.bytes.get());
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    // Recorded once async processing is complete, not after the first dispatch
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+        // Streaming bodies are written from an async executor thread
+        private final AtomicLong bytes = new AtomicLong();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes.incrementAndGet();
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes.addAndGet(len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        // Character count; equals the byte count for the ASCII-only JSON this API mostly produces
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer delegate = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        delegate.write(cbuf, off, len);
+                        bytes.addAndGet(len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+}
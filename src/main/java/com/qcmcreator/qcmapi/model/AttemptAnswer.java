@@ -0,0 +1,40 @@
+
+package com.qcmcreator.qcmapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+// Append-only: answering a question again adds a row, and the latest row per question counts
+@Table(name = "attempt_answers", indexes = @Index(name = "idx_attempt_answers_attempt_id", columnList = "attempt_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttemptAnswer {
+    // Assigned from attempt_answer_seq blocks by AttemptService's IdBlockAllocator, the sequence's only user
+    @Id
+    private Long id;
+
+    @Column(name = "attempt_id", nullable = false)
+    private Long attemptId;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    // Comma separated option ids for multiple choice questions
+    @Column(name = "selected_options", length = 1000)
+    private String selectedOptions;
+
+    @Column(name = "direct_answer", length = 500)
+    private String directAnswer;
+
+    @Column(nullable = false)
+    private boolean correct;
+
+    @Column(name = "answered_at", nullable = false)
+    private LocalDateTime answeredAt;
+}
@@ -0,0 +1,7 @@
+
+package com.qcmcreator.qcmapi.model;
+
+public enum AttemptStatus {
+    IN_PROGRESS,
+    FINISHED
+}
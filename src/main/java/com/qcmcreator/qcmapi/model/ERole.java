@@ -2,5 +2,7 @@
 package com.qcmcreator.qcmapi.model;
 
 public enum ERole {
-    USER
+    USER,
+    // May register users in bulk; granted directly in the database
+    ADMIN
 }
@@ -7,13 +7,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "options")
+@Table(name = "options", indexes = @Index(name = "idx_options_question_id", columnList = "question_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Option {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "option_seq")
+    @SequenceGenerator(name = "option_seq", sequenceName = "option_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 500)
@@ -22,6 +23,10 @@ public class Option {
     @Column(name = "is_correct")
     private boolean isCorrect;
     
+    // Zero-based place among the question's options
+    @Column(nullable = false)
+    private int position;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id")
     private Question question;
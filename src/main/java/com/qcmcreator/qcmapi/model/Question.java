@@ -10,13 +10,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_quiz_type", columnList = "quiz_id, question_type"),
+        @Index(name = "idx_questions_quiz_position", columnList = "quiz_id, position")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Question {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 500)
@@ -32,10 +36,15 @@ public class Question {
     @Column(name = "direct_answer", length = 500)
     private String directAnswer;
     
+    // Zero-based place in the quiz; ids only grow, so they cannot express order
+    @Column(nullable = false)
+    private int position;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id")
     private Quiz quiz;
     
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position")
     private List<Option> options = new ArrayList<>();
 }
@@ -11,7 +11,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "quizzes")
+@Table(name = "quizzes", indexes = {
+        @Index(name = "idx_quizzes_technology_created_at", columnList = "technology, created_at, id"),
+        @Index(name = "idx_quizzes_user_created_at", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_quizzes_created_at", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +37,7 @@ public class Quiz {
     private LocalDateTime createdAt;
     
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position")
     private List<Question> questions = new ArrayList<>();
     
     @ManyToOne(fetch = FetchType.LAZY)
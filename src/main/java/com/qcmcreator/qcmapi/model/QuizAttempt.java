@@ -0,0 +1,54 @@
+
+package com.qcmcreator.qcmapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Quiz and user are plain ids so attempts survive quiz deletion and can be written in JDBC batches
+@Entity
+@Table(name = "quiz_attempts", indexes = {
+        @Index(name = "idx_quiz_attempts_user_started_at", columnList = "user_id, started_at"),
+        @Index(name = "idx_quiz_attempts_quiz_id", columnList = "quiz_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAttempt {
+    // Assigned from attempt_seq blocks by AttemptService's IdBlockAllocator, the sequence's only user
+    @Id
+    private Long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private Long quizId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Content hash of the quiz the attempt is graded against
+    @Column(name = "quiz_version", nullable = false, length = 64)
+    private String quizVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AttemptStatus status = AttemptStatus.IN_PROGRESS;
+
+    @Column(nullable = false)
+    private int score;
+
+    @Column(name = "max_score", nullable = false)
+    private int maxScore;
+
+    // Questions sampled for the attempt; its id seeds which ones and in what order
+    @Column(name = "question_count", nullable = false)
+    private int questionCount;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -30,7 +30,7 @@ public class User {
     private String email;
 
     @Column(nullable = false)
-    private String password;  // Note: In a real app, this should be hashed
+    private String password;  // {bcrypt} hash
 
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "user_roles", 
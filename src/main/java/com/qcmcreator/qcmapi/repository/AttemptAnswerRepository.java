@@ -0,0 +1,14 @@
+
+package com.qcmcreator.qcmapi.repository;
+
+import com.qcmcreator.qcmapi.model.AttemptAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttemptAnswerRepository extends JpaRepository<AttemptAnswer, Long> {
+    // Oldest first, so the last answer per question wins
+    List<AttemptAnswer> findByAttemptIdOrderById(Long attemptId);
+}
@@ -4,11 +4,32 @@ package com.qcmcreator.qcmapi.repository;
 import com.qcmcreator.qcmapi.model.Option;
 import com.qcmcreator.qcmapi.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OptionRepository extends JpaRepository<Option, Long> {
     List<Option> findByQuestion(Question question);
+
+    @Query("select o from Option o where o.question.id in :questionIds order by o.position, o.id")
+    List<Option> findByQuestionIdIn(Collection<Long> questionIds);
+
+    @Query("select o from Option o where o.question.quiz.user.id = :userId " +
+            "and o.question.questionType = com.qcmcreator.qcmapi.model.QuestionType.MULTIPLE_CHOICE order by o.position, o.id")
+    List<Option> findMultipleChoiceOptionsByUserId(Long userId);
+
+    // Option texts of a whole quiz in one query, without the correctness flag
+    @Query("select o.id as id, o.question.id as questionId, o.text as text from Option o " +
+            "where o.question.quiz.id = :quizId " +
+            "and o.question.questionType = com.qcmcreator.qcmapi.model.QuestionType.MULTIPLE_CHOICE order by o.position, o.id")
+    List<StudentOptionRow> findStudentRowsByQuizId(Long quizId);
+
+    interface StudentOptionRow {
+        Long getId();
+        Long getQuestionId();
+        String getText();
+    }
 }
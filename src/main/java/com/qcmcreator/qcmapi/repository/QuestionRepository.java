@@ -2,13 +2,40 @@
 package com.qcmcreator.qcmapi.repository;
 
 import com.qcmcreator.qcmapi.model.Question;
+import com.qcmcreator.qcmapi.model.QuestionType;
 import com.qcmcreator.qcmapi.model.Quiz;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByQuizOrderById(Quiz quiz);
+
+    @Query("select q from Question q where q.quiz.id in :quizIds order by q.position, q.id")
+    List<Question> findByQuizIdIn(Collection<Long> quizIds);
+
+    // Question texts only, for the search index
+    @Query("select q.quiz.id as quizId, q.text as text from Question q where q.quiz.id in :quizIds")
+    List<QuestionText> findTextsByQuizIdIn(Collection<Long> quizIds);
+
+    // Everything a student sees of a question; the direct answer column is never read
+    @Query("select q.id as id, q.text as text, q.imageUrl as imageUrl, q.questionType as questionType " +
+            "from Question q where q.quiz.id = :quizId order by q.position, q.id")
+    List<StudentQuestionRow> findStudentRowsByQuizId(Long quizId);
+
+    interface QuestionText {
+        Long getQuizId();
+        String getText();
+    }
+
+    interface StudentQuestionRow {
+        Long getId();
+        String getText();
+        String getImageUrl();
+        QuestionType getQuestionType();
+    }
 }
@@ -0,0 +1,10 @@
+
+package com.qcmcreator.qcmapi.repository;
+
+import com.qcmcreator.qcmapi.model.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+}
@@ -2,14 +2,53 @@
 package com.qcmcreator.qcmapi.repository;
 
 import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.model.Technology;
 import com.qcmcreator.qcmapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface QuizRepository extends JpaRepository<Quiz, Long> {
+public interface QuizRepository extends JpaRepository<Quiz, Long>, QuizRepositoryCustom {
     List<Quiz> findByUserOrderByCreatedAtDesc(User user);
     List<Quiz> findAllByOrderByCreatedAtDesc();
+    List<Quiz> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    // A user's quizzes and their questions in a single fetch-join query
+    @EntityGraph(attributePaths = "questions")
+    @Query("select q from Quiz q where q.user.id = :userId order by q.createdAt desc")
+    List<Quiz> findAllWithQuestionsByUserId(Long userId);
+
+    @EntityGraph(attributePaths = "questions")
+    @Query("select q from Quiz q where q.id = :id")
+    Optional<Quiz> findWithQuestionsById(Long id);
+
+    // Forward-only cursor over a user's quizzes; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select q from Quiz q where q.user.id = :userId order by q.id")
+    Stream<Quiz> streamByUserIdOrderById(Long userId);
+
+    // Header columns only, for the student view
+    @Query("select q.id as id, q.title as title, q.description as description, q.technology as technology " +
+            "from Quiz q where q.id = :id")
+    Optional<QuizHeader> findHeaderById(Long id);
+
+    interface QuizHeader {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        Technology getTechnology();
+    }
 }
@@ -0,0 +1,18 @@
+
+package com.qcmcreator.qcmapi.repository;
+
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import com.qcmcreator.qcmapi.dto.request.QuizFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface QuizRepositoryCustom {
+
+    /**
+     * Keyset page of quiz summaries, newest first, restricted by the filter.
+     * Rows strictly after the ({@code createdAt}, {@code id}) position are
+     * returned; pass nulls for the first page.
+     */
+    List<QuizSummaryDto> findSummaries(QuizFilter filter, LocalDateTime createdAt, Long id, int limit);
+}
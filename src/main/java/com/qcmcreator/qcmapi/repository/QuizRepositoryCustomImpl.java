@@ -0,0 +1,65 @@
+
+package com.qcmcreator.qcmapi.repository;
+
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import com.qcmcreator.qcmapi.dto.request.QuizFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the listing query from the filters that are set, so each
+ * combination matches one of the composite indexes declared on {@code quizzes}:
+ * (technology, created_at, id) or (user_id, created_at, id), with the
+ * question type check resolved through the (quiz_id, question_type) index.
+ * The indexes locate and order the page; the selected columns still come from
+ * the table rows. {@code QuizRepositoryPlanTest} checks the plans.
+ */
+public class QuizRepositoryCustomImpl implements QuizRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<QuizSummaryDto> findSummaries(QuizFilter filter, LocalDateTime createdAt, Long id, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.qcmcreator.qcmapi.dto.QuizSummaryDto(q.id, q.title, q.technology, q.createdAt, " +
+                "(select count(qu) from Question qu where qu.quiz = q)) from Quiz q");
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (filter.getTechnology() != null) {
+            conditions.add("q.technology = :technology");
+            parameters.put("technology", filter.getTechnology());
+        }
+        if (filter.getOwnerId() != null) {
+            conditions.add("q.user.id = :ownerId");
+            parameters.put("ownerId", filter.getOwnerId());
+        }
+        if (filter.getQuestionType() != null) {
+            conditions.add("exists (select 1 from Question qt where qt.quiz = q and qt.questionType = :questionType)");
+            parameters.put("questionType", filter.getQuestionType());
+        }
+        if (createdAt != null && id != null) {
+            // Row-value comparison: one range bound on the index instead of an OR of two predicates
+            conditions.add("(q.createdAt, q.id) < (:createdAt, :id)");
+            parameters.put("createdAt", createdAt);
+            parameters.put("id", id);
+        }
+
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+        jpql.append(" order by q.createdAt desc, q.id desc");
+
+        TypedQuery<QuizSummaryDto> query = entityManager.createQuery(jpql.toString(), QuizSummaryDto.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
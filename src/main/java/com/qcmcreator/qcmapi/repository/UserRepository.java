@@ -2,9 +2,15 @@
 package com.qcmcreator.qcmapi.repository;
 
 import com.qcmcreator.qcmapi.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +18,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(String username, String password);
+
+    // Existing users holding any of the usernames or emails, in one query
+    @Query("select u.id as id, u.username as username, u.email as email from User u " +
+           "where u.username in :usernames or u.email in :emails")
+    List<UserIdentity> findIdentities(Collection<String> usernames, Collection<String> emails);
+
+    @Query("select u.id as id, u.username as username, u.email as email from User u where u.id > :id order by u.id")
+    List<UserIdentity> findIdentitiesAfter(Long id, Pageable pageable);
+
+    interface UserIdentity {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
 }
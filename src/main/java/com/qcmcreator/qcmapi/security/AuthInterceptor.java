@@ -1,44 +0,0 @@
-
-package com.qcmcreator.qcmapi.security;
-
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
-import org.springframework.web.servlet.HandlerInterceptor;
-
-@Component
-public class AuthInterceptor implements HandlerInterceptor {
-    
-    @Autowired
-    private TokenUtils tokenUtils;
-    
-    @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String path = request.getRequestURI();
-        
-        // Allow auth endpoints without authentication
-        if (path.startsWith("/api/auth/") || path.startsWith("/h2-console/")) {
-            return true;
-        }
-        
-        String token = parseJwt(request);
-        if (StringUtils.hasText(token) && tokenUtils.validateToken(token)) {
-            return true;
-        }
-        
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        return false;
-    }
-    
-    private String parseJwt(HttpServletRequest request) {
-        String headerAuth = request.getHeader("Authorization");
-
-        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
-        }
-
-        return null;
-    }
-}
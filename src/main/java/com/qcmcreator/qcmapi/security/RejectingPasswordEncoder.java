@@ -0,0 +1,22 @@
+package com.qcmcreator.qcmapi.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Default for matches of the delegating encoder: stored values without a
+ * known {id} prefix never match. It only answers {@link #matches}; encoding
+ * always goes through the delegating encoder's bcrypt.
+ */
+class RejectingPasswordEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        throw new IllegalStateException("RejectingPasswordEncoder only answers matches(); "
+                + "passwords are encoded by the bcrypt encoder of the DelegatingPasswordEncoder");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+
+package com.qcmcreator.qcmapi.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// Immutable view of a verified token's claims
+@Getter
+@AllArgsConstructor
+public class TokenClaims {
+    private final String username;
+    private final Long userId;
+    private final List<String> roles;
+    private final Instant expiresAt;
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+}
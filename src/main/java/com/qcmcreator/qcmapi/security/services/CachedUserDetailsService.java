@@ -0,0 +1,63 @@
+
+package com.qcmcreator.qcmapi.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Caching decorator around {@link UserDetailsServiceImpl}. Holds immutable
+ * {@link UserDetailsImpl} snapshots; unknown users are never cached, and an
+ * entry is dropped as soon as a {@link UserChangedEvent} for it commits.
+ */
+@Service
+public class CachedUserDetailsService implements UserDetailsService {
+    @Autowired
+    private UserDetailsServiceImpl delegate;
+
+    @Value("${user-details.cache.max-size}")
+    private long maxSize;
+
+    @Value("${user-details.cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, UserDetailsImpl> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.details");
+    }
+
+    @Override
+    public UserDetailsImpl loadUserByUsername(String username) throws UsernameNotFoundException {
+        return cache.get(username, key -> (UserDetailsImpl) delegate.loadUserByUsername(key));
+    }
+
+    // The cached snapshot, or null; never queries the database
+    public UserDetailsImpl getIfPresent(String username) {
+        return cache.getIfPresent(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidate(event.getUsername());
+    }
+}
@@ -0,0 +1,190 @@
+package com.qcmcreator.qcmapi.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Checks login credentials off the request threads. Password hashing, and
+ * the user lookup when the user is not cached, run on a small fixed pool
+ * with a bounded queue; when both are full the check is
+ * rejected instead of queued, so a login storm cannot take CPU or threads
+ * from the rest of the API. Credentials verified recently are remembered
+ * under a keyed hash, and hashes with an outdated cost are
+ * replaced on the next successful login.
+ */
+@Service
+public class PasswordVerificationService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerificationService.class);
+
+    @Value("${security.password.pool-size}")
+    private int poolSize;
+
+    @Value("${security.password.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${security.password.timeout-ms}")
+    private long timeoutMs;
+
+    @Value("${security.password.verified-cache.max-size}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${security.password.verified-cache.ttl-seconds}")
+    private long verifiedCacheTtlSeconds;
+
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    // Keyed hash of username and password -> the stored hash they were verified against
+    private Cache<String, String> verified;
+
+    // Random per process: cache keys are useless outside this JVM
+    private SecretKeySpec pepper;
+
+    // Checked for unknown users so response time does not reveal which usernames exist
+    private String dummyHash;
+
+    @PostConstruct
+    void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads(), new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.verify");
+
+        verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(verifiedCacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "password.verified");
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        pepper = new SecretKeySpec(key, "HmacSHA256");
+        dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    /**
+     * Completes with the user if the credentials are valid, or empty otherwise.
+     *
+     * @throws RejectedExecutionException if the hashing pool and its queue are full
+     */
+    public CompletableFuture<Optional<UserDetailsImpl>> verify(String username, String rawPassword) {
+        // Only the caches are consulted on the calling thread; a user lookup may query the database
+        String cacheKey = cacheKey(username, rawPassword);
+        UserDetailsImpl cached = userDetailsService.getIfPresent(username);
+        if (cached != null && cached.getPassword().equals(verified.getIfPresent(cacheKey))) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+
+        return CompletableFuture
+                .supplyAsync(() -> check(findUser(username), rawPassword, cacheKey), executor)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public String encode(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    private UserDetailsImpl findUser(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Optional<UserDetailsImpl> check(UserDetailsImpl user, String rawPassword, String cacheKey) {
+        if (user == null) {
+            passwordEncoder.matches(rawPassword, dummyHash);
+            return Optional.empty();
+        }
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return Optional.empty();
+        }
+
+        String hash = user.getPassword();
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            String upgraded = passwordEncoder.encode(rawPassword);
+            try {
+                userRepository.updatePassword(user.getUsername(), upgraded);
+                eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+                hash = upgraded;
+            } catch (RuntimeException e) {
+                // The login itself succeeded; the rehash is retried on the next one
+                logger.warn("Could not rehash password of {}: {}", user.getUsername(), e.getMessage());
+            }
+        }
+        verified.put(cacheKey, hash);
+        return Optional.of(user);
+    }
+
+    private String cacheKey(String username, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(pepper);
+            byte[] digest = mac.doFinal((username + '\0' + rawPassword).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-verify-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
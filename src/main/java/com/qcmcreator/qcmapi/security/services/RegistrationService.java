@@ -0,0 +1,213 @@
+
+package com.qcmcreator.qcmapi.security.services;
+
+import com.qcmcreator.qcmapi.dto.request.SignupRequest;
+import com.qcmcreator.qcmapi.model.ERole;
+import com.qcmcreator.qcmapi.model.Role;
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.RoleRepository;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates user accounts. Username and email checks consult
+ * {@link UserIdentityFilter} first and only query the database when the
+ * filter cannot rule a value out. The filter and cached user details only
+ * learn about a user once its insert has committed.
+ */
+@Service
+public class RegistrationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserIdentityFilter identityFilter;
+
+    @Autowired
+    private PasswordVerificationService passwordVerificationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${registration.hash.pool-size}")
+    private int hashPoolSize;
+
+    @Value("${registration.hash.queue-capacity}")
+    private int hashQueueCapacity;
+
+    // Hashes for both registration paths; separate from the login pool, so sign-ups never delay or reject logins
+    private ThreadPoolExecutor hashExecutor;
+
+    @PostConstruct
+    void init() {
+        hashExecutor = new ThreadPoolExecutor(hashPoolSize, hashPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashQueueCapacity), namedThreads(), new ThreadPoolExecutor.CallerRunsPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, hashExecutor, "registration.hash");
+    }
+
+    /**
+     * Registers one user; returns the reason when the username or email is taken.
+     * The password is hashed on the registration pool, like a batch.
+     */
+    public Optional<String> register(SignupRequest request) {
+        Optional<String> conflict = findConflict(request);
+        if (conflict.isPresent()) {
+            return conflict;
+        }
+
+        User user = newUser(request, encodeAll(List.of(request.getPassword())).get(0), userRole());
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently, or by an instance whose inserts this filter has not seen
+            return Optional.of(findConflict(request).orElse("Username or email is already taken"));
+        }
+        identityFilter.add(user.getUsername(), user.getEmail());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+        return Optional.empty();
+    }
+
+    /**
+     * Registers all users in one transaction, or none of them. Conflicts with
+     * existing users are found with a single query; conflicts within the batch
+     * are found in memory. Returns one message per conflict, empty on success.
+     * Passwords are hashed before the transaction opens, so it holds its
+     * connection only for the inserts.
+     *
+     * @throws DataIntegrityViolationException if a conflicting user was registered concurrently
+     */
+    public List<String> registerAll(List<SignupRequest> requests) {
+        List<String> conflicts = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (SignupRequest request : requests) {
+            if (!usernames.add(request.getUsername())) {
+                conflicts.add("Username " + request.getUsername() + " appears more than once");
+            }
+            if (!emails.add(request.getEmail())) {
+                conflicts.add("Email " + request.getEmail() + " appears more than once");
+            }
+        }
+
+        // Only values the filter cannot rule out need to be checked against the table
+        List<String> usernamesToCheck = usernames.stream().filter(identityFilter::mightHaveUsername).toList();
+        List<String> emailsToCheck = emails.stream().filter(identityFilter::mightHaveEmail).toList();
+        if (!usernamesToCheck.isEmpty() || !emailsToCheck.isEmpty()) {
+            for (UserRepository.UserIdentity existing : userRepository.findIdentities(
+                    orNone(usernamesToCheck), orNone(emailsToCheck))) {
+                if (usernames.contains(existing.getUsername())) {
+                    conflicts.add("Username " + existing.getUsername() + " is already taken");
+                }
+                if (emails.contains(existing.getEmail())) {
+                    conflicts.add("Email " + existing.getEmail() + " is already in use");
+                }
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        List<String> hashes = encodeAll(requests.stream().map(SignupRequest::getPassword).toList());
+        Role role = userRole();
+        List<User> users = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            users.add(newUser(requests.get(i), hashes.get(i), role));
+        }
+        // Flushed inside, so a unique constraint violation surfaces here rather than as a commit failure
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAllAndFlush(users));
+
+        // Committed: a rolled back batch must not leave its names in the filter
+        for (User user : users) {
+            identityFilter.add(user.getUsername(), user.getEmail());
+            eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+        }
+        return List.of();
+    }
+
+    // Hashes in parallel on the registration pool, in order
+    private List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            hashes.add(CompletableFuture.supplyAsync(() -> passwordVerificationService.encode(rawPassword), hashExecutor));
+        }
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Optional<String> findConflict(SignupRequest request) {
+        if (identityFilter.mightHaveUsername(request.getUsername())
+                && userRepository.existsByUsername(request.getUsername())) {
+            return Optional.of("Username is already taken!");
+        }
+        if (identityFilter.mightHaveEmail(request.getEmail())
+                && userRepository.existsByEmail(request.getEmail())) {
+            return Optional.of("Email is already in use!");
+        }
+        return Optional.empty();
+    }
+
+    private Role userRole() {
+        return roleRepository.findByName(ERole.USER)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+    }
+
+    // An empty IN list is not valid SQL everywhere; match nothing instead
+    private static List<String> orNone(List<String> values) {
+        return values.isEmpty() ? List.of("") : values;
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "registration-hash-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    private static User newUser(SignupRequest request, String passwordHash, Role role) {
+        User user = new User();
+        user.setUsername(request.getUsername());
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordHash);
+        Set<Role> roles = new HashSet<>();
+        roles.add(role);
+        user.setRoles(roles);
+        return user;
+    }
+}
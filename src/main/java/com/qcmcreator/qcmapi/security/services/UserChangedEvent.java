@@ -0,0 +1,12 @@
+
+package com.qcmcreator.qcmapi.security.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published whenever a user's account data or roles change
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final String username;
+}
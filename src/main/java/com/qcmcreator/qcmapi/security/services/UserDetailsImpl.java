@@ -3,6 +3,7 @@ package com.qcmcreator.qcmapi.security.services;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.security.TokenClaims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,14 +16,14 @@ import java.util.stream.Collectors;
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
-    private Long id;
-    private String username;
-    private String email;
+    private final Long id;
+    private final String username;
+    private final String email;
     
     @JsonIgnore
-    private String password;
+    private final String password;
 
-    private Collection<? extends GrantedAuthority> authorities;
+    private final Collection<? extends GrantedAuthority> authorities;
 
     public UserDetailsImpl(Long id, String username, String email, String password,
                           Collection<? extends GrantedAuthority> authorities) {
@@ -30,7 +31,7 @@ public class UserDetailsImpl implements UserDetails {
         this.username = username;
         this.email = email;
         this.password = password;
-        this.authorities = authorities;
+        this.authorities = List.copyOf(authorities);
     }
 
     public static UserDetailsImpl build(User user) {
@@ -46,6 +47,20 @@ public class UserDetailsImpl implements UserDetails {
                 authorities);
     }
 
+    // Built from verified token claims alone, without touching the database
+    public static UserDetailsImpl fromClaims(TokenClaims claims) {
+        List<GrantedAuthority> authorities = claims.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(
+                claims.getUserId(),
+                claims.getUsername(),
+                null,
+                null,
+                authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,81 @@
+
+package com.qcmcreator.qcmapi.security.services;
+
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Bloom filters over every username and email in use. A negative answer
+ * means the value is certainly free and the uniqueness query can be skipped.
+ * Until the startup build completes, and for values inserted by another
+ * instance, the unique constraints on {@code users} remain the final check.
+ */
+@Component
+public class UserIdentityFilter {
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityFilter.class);
+
+    private static final int BUILD_CHUNK_SIZE = 5000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${registration.bloom.expected-users}")
+    private long expectedUsers;
+
+    @Value("${registration.bloom.false-positive-rate}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        emails = new BloomFilter(expectedUsers, falsePositiveRate);
+
+        long count = 0;
+        Long lastId = 0L;
+        List<UserRepository.UserIdentity> chunk;
+        do {
+            chunk = userRepository.findIdentitiesAfter(lastId, PageRequest.of(0, BUILD_CHUNK_SIZE));
+            for (UserRepository.UserIdentity identity : chunk) {
+                add(identity.getUsername(), identity.getEmail());
+                lastId = identity.getId();
+            }
+            count += chunk.size();
+        } while (chunk.size() == BUILD_CHUNK_SIZE);
+
+        ready = true;
+        logger.info("User identity filter built over {} users in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void add(String username, String email) {
+        BloomFilter usernameFilter = usernames;
+        BloomFilter emailFilter = emails;
+        if (usernameFilter != null) {
+            usernameFilter.put(username);
+            emailFilter.put(email);
+        }
+    }
+
+    // False only when the username is certainly not taken
+    public boolean mightHaveUsername(String username) {
+        return !ready || usernames.mightContain(username);
+    }
+
+    // False only when the email is certainly not in use
+    public boolean mightHaveEmail(String email) {
+        return !ready || emails.mightContain(email);
+    }
+}
@@ -0,0 +1,120 @@
+
+package com.qcmcreator.qcmapi.seed;
+
+import com.qcmcreator.qcmapi.model.ERole;
+import com.qcmcreator.qcmapi.model.Role;
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.RoleRepository;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.service.QuizService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills the database with synthetic users and quizzes when the "seed" profile
+ * is active. Users are named {@code student<n>} and share one password, so the
+ * load driver can log in as any of them.
+ */
+@Component
+@Profile("seed")
+public class DataSeeder implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${seed.users}")
+    private int userCount;
+
+    @Value("${seed.quizzes}")
+    private int quizCount;
+
+    @Value("${seed.mean-questions}")
+    private int meanQuestions;
+
+    @Value("${seed.max-questions}")
+    private int maxQuestions;
+
+    @Value("${seed.direct-answer-ratio}")
+    private double directAnswerRatio;
+
+    @Value("${seed.password}")
+    private String password;
+
+    @Value("${seed.random-seed}")
+    private long randomSeed;
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (userRepository.existsByUsername("student0")) {
+            logger.info("Seed data already present, skipping");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<Long> userIds = seedUsers();
+
+        SyntheticQuizGenerator generator = new SyntheticQuizGenerator(randomSeed);
+        Random random = new Random(randomSeed);
+        for (int i = 0; i < quizCount; i++) {
+            int questions = generator.skewedQuestionCount(meanQuestions, maxQuestions);
+            Long ownerId = userIds.get(random.nextInt(userIds.size()));
+            quizService.createQuiz(generator.quiz(questions, directAnswerRatio), ownerId);
+
+            if ((i + 1) % 1000 == 0) {
+                logger.info("Seeded {}/{} quizzes", i + 1, quizCount);
+            }
+        }
+
+        logger.info("Seeded {} users and {} quizzes in {} ms", userIds.size(), quizCount, System.currentTimeMillis() - start);
+    }
+
+    private List<Long> seedUsers() {
+        Role userRole = roleRepository.findByName(ERole.USER)
+                .orElseGet(() -> roleRepository.save(new Role(ERole.USER)));
+
+        // One hash shared by every seeded user; hashing per user would dominate seeding time
+        String passwordHash = passwordEncoder.encode(password);
+        List<Long> userIds = new ArrayList<>(userCount);
+        List<User> chunk = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setUsername("student" + i);
+            user.setEmail("student" + i + "@example.com");
+            user.setPassword(passwordHash);
+            Set<Role> roles = new HashSet<>();
+            roles.add(userRole);
+            user.setRoles(roles);
+            chunk.add(user);
+
+            if (chunk.size() == 500 || i == userCount - 1) {
+                for (User saved : userRepository.saveAll(chunk)) {
+                    userIds.add(saved.getId());
+                }
+                chunk.clear();
+            }
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,100 @@
+
+package com.qcmcreator.qcmapi.seed;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Technology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator of realistic-looking quizzes for benchmarks, seeding
+ * and load tests. The same seed always yields the same sequence of quizzes.
+ */
+public class SyntheticQuizGenerator {
+    private static final String[] TOPICS = {
+            "dependency injection", "bean scopes", "transactions", "JPA fetching", "REST controllers",
+            "security filters", "components", "services", "routing", "observables", "change detection",
+            "pipes", "directives", "forms", "HTTP interceptors", "lazy loading"
+    };
+
+    private static final String[] WORDS = {
+            "which", "statement", "about", "is", "correct", "when", "using", "the", "default", "configuration",
+            "what", "happens", "after", "calling", "method", "with", "annotation", "inside", "module", "application"
+    };
+
+    private final Random random;
+
+    public SyntheticQuizGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public QuizDto quiz(int questionCount, double directAnswerRatio) {
+        Technology[] technologies = Technology.values();
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+
+        QuizDto quiz = new QuizDto();
+        quiz.setTitle("Quiz on " + topic + " #" + random.nextInt(100_000));
+        quiz.setDescription(sentence(12 + random.nextInt(20)));
+        quiz.setTechnology(technologies[random.nextInt(technologies.length)]);
+
+        List<QuestionDto> questions = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            questions.add(random.nextDouble() < directAnswerRatio ? directAnswerQuestion() : multipleChoiceQuestion());
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    /**
+     * Question count following a long-tailed distribution: most quizzes are short,
+     * a few are large question banks. Always between 1 and {@code max}.
+     */
+    public int skewedQuestionCount(int mean, int max) {
+        double sample = -Math.log(1 - random.nextDouble()) * mean;
+        return (int) Math.max(1, Math.min(max, Math.round(sample)));
+    }
+
+    private QuestionDto multipleChoiceQuestion() {
+        QuestionDto question = new QuestionDto();
+        question.setText(sentence(8 + random.nextInt(12)) + "?");
+        question.setQuestionType(QuestionType.MULTIPLE_CHOICE);
+
+        int optionCount = 2 + random.nextInt(4);
+        int correct = random.nextInt(optionCount);
+        List<OptionDto> options = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            OptionDto option = new OptionDto();
+            option.setText(sentence(3 + random.nextInt(8)));
+            option.setCorrect(i == correct || random.nextInt(10) == 0);
+            options.add(option);
+        }
+        question.setOptions(options);
+        return question;
+    }
+
+    private QuestionDto directAnswerQuestion() {
+        QuestionDto question = new QuestionDto();
+        question.setText(sentence(8 + random.nextInt(12)) + "?");
+        question.setQuestionType(QuestionType.DIRECT_ANSWER);
+        question.setDirectAnswer(WORDS[random.nextInt(WORDS.length)]);
+        question.setOptions(new ArrayList<>());
+        return question;
+    }
+
+    private String sentence(int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        sentence.setCharAt(0, Character.toUpperCase(sentence.charAt(0)));
+        return sentence.toString();
+    }
+}
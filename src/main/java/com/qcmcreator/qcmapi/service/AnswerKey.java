@@ -0,0 +1,135 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.model.QuestionType;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable grading data for one version of a quiz: for every question either
+ * its option ids with the correct ones as a bit set, or its normalized direct
+ * answer. Question and option ids are kept sorted and found by binary search.
+ */
+public final class AnswerKey {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Long quizId;
+    private final String version;
+    private final long[] questionIds;
+    private final long[][] optionIds;
+    private final BitSet[] correctOptions;
+    private final String[] directAnswers;
+
+    private AnswerKey(Long quizId, String version, long[] questionIds, long[][] optionIds,
+                      BitSet[] correctOptions, String[] directAnswers) {
+        this.quizId = quizId;
+        this.version = version;
+        this.questionIds = questionIds;
+        this.optionIds = optionIds;
+        this.correctOptions = correctOptions;
+        this.directAnswers = directAnswers;
+    }
+
+    public static AnswerKey of(CachedQuiz cached) {
+        QuizDto quiz = cached.getQuiz();
+        List<QuestionDto> questions = quiz.getQuestions().stream()
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+
+        int count = questions.size();
+        long[] questionIds = new long[count];
+        long[][] optionIds = new long[count][];
+        BitSet[] correctOptions = new BitSet[count];
+        String[] directAnswers = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            QuestionDto question = questions.get(i);
+            questionIds[i] = question.getId();
+            if (question.getQuestionType() == QuestionType.DIRECT_ANSWER) {
+                directAnswers[i] = normalize(question.getDirectAnswer());
+                continue;
+            }
+            List<OptionDto> options = question.getOptions().stream()
+                    .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                    .toList();
+            long[] ids = new long[options.size()];
+            BitSet correct = new BitSet(options.size());
+            for (int j = 0; j < options.size(); j++) {
+                ids[j] = options.get(j).getId();
+                if (options.get(j).isCorrect()) {
+                    correct.set(j);
+                }
+            }
+            optionIds[i] = ids;
+            correctOptions[i] = correct;
+        }
+
+        return new AnswerKey(quiz.getId(), cached.getEtag(), questionIds, optionIds, correctOptions, directAnswers);
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getMaxScore() {
+        return questionIds.length;
+    }
+
+    public boolean hasQuestion(long questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    /**
+     * A multiple choice answer is correct when exactly the correct options are
+     * selected; a direct answer when it matches after normalization.
+     *
+     * @throws IllegalArgumentException if the question is not part of the quiz
+     */
+    public boolean isCorrect(long questionId, Collection<Long> selectedOptionIds, String directAnswer) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        if (index < 0) {
+            throw new IllegalArgumentException("Question " + questionId + " is not part of quiz " + quizId);
+        }
+
+        if (optionIds[index] == null) {
+            return directAnswer != null && directAnswers[index] != null
+                    && directAnswers[index].equals(normalize(directAnswer));
+        }
+
+        if (selectedOptionIds == null) {
+            return false;
+        }
+        BitSet selected = new BitSet(optionIds[index].length);
+        for (Long optionId : selectedOptionIds) {
+            int position = optionId == null ? -1 : Arrays.binarySearch(optionIds[index], optionId);
+            if (position < 0) {
+                return false;
+            }
+            selected.set(position);
+        }
+        return selected.equals(correctOptions[index]);
+    }
+
+    // Case, accent and whitespace insensitive form of a direct answer
+    static String normalize(String answer) {
+        if (answer == null) {
+            return null;
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(answer, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,267 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of attempt writes, one JSON line per entry. Entries get
+ * increasing sequence numbers; the checkpoint file holds the highest sequence
+ * known to be committed to the database. Entries above it are replayed on
+ * startup, and the journal is truncated whenever everything is committed.
+ * With fsync enabled, appends are made durable by group commit: one force
+ * covers every entry appended before it, and appenders that arrive while a
+ * force runs wait for the next one rather than each forcing on their own.
+ */
+@Component
+public class AttemptJournal {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptJournal.class);
+
+    public record Entry(long seq, AttemptWrite write) {
+    }
+
+    record DeadLetter(Entry entry, String error) {
+    }
+
+    @Value("${attempt.journal.dir}")
+    private String dir;
+
+    // Also survive power loss, at the cost of an fsync per group of appends
+    @Value("${attempt.journal.fsync}")
+    private boolean fsync;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path journalPath;
+    private Path checkpointPath;
+    private Path deadLetterPath;
+    private FileChannel channel;
+    private ObjectWriter writeWriter;
+
+    // Orders appends and truncation; held only while writing to the channel
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Held by the appender currently forcing the channel
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Written under appendLock
+    private volatile long lastSeq;
+    // Highest sequence known to be on disk; written under syncLock
+    private volatile long syncedSeq;
+
+    @PostConstruct
+    void open() throws IOException {
+        Path directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        journalPath = directory.resolve("attempts.journal");
+        checkpointPath = directory.resolve("attempts.checkpoint");
+        deadLetterPath = directory.resolve("attempts.dead-letter");
+        writeWriter = objectMapper.writerFor(AttemptWrite.class);
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Entries written but not checkpointed by a previous run, in append order.
+     * A torn last line from a crash mid-append is cut off the file, so new
+     * appends start on a line of their own.
+     */
+    public List<Entry> recover() throws IOException {
+        long watermark = readCheckpoint();
+        long seq = watermark;
+
+        byte[] content = Files.readAllBytes(journalPath);
+        int complete = content.length;
+        while (complete > 0 && content[complete - 1] != '\n') {
+            complete--;
+        }
+
+        List<Entry> pending = new ArrayList<>();
+        for (String line : new String(content, 0, complete, StandardCharsets.UTF_8).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Entry entry;
+            try {
+                entry = objectMapper.readValue(line, Entry.class);
+            } catch (IOException e) {
+                logger.warn("Skipping unreadable attempt journal line: {}", e.getMessage());
+                continue;
+            }
+            seq = Math.max(seq, entry.seq());
+            if (entry.seq() > watermark) {
+                pending.add(entry);
+            }
+        }
+
+        appendLock.lock();
+        try {
+            if (complete < content.length) {
+                logger.warn("Dropping a torn attempt journal line of {} bytes", content.length - complete);
+                channel.truncate(complete);
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+            lastSeq = seq;
+            syncedSeq = seq;
+        } finally {
+            appendLock.unlock();
+        }
+        return pending;
+    }
+
+    /**
+     * Appends the writes and hands each entry to the consumer while still
+     * holding the journal lock, so consumers see entries in sequence order.
+     * The entries are serialized before the lock is taken, and the channel is
+     * not forced here; see {@link #awaitDurable}.
+     *
+     * @return the sequence of the last entry appended
+     */
+    public long append(List<AttemptWrite> writes, Consumer<Entry> consumer) throws IOException {
+        List<String> serialized = new ArrayList<>(writes.size());
+        for (AttemptWrite write : writes) {
+            serialized.add(writeWriter.writeValueAsString(write));
+        }
+
+        appendLock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>(writes.size());
+            StringBuilder lines = new StringBuilder();
+            long seq = lastSeq;
+            for (int i = 0; i < writes.size(); i++) {
+                Entry entry = new Entry(++seq, writes.get(i));
+                entries.add(entry);
+                lines.append("{\"seq\":").append(seq).append(",\"write\":").append(serialized.get(i)).append("}\n");
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            lastSeq = seq;
+            entries.forEach(consumer);
+            return seq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns once every entry up to seq is on disk; immediately when fsync is
+     * off. The first caller to get the sync lock forces everything appended so
+     * far, so the callers queued behind it usually find their entries already
+     * covered and return without a force of their own.
+     */
+    public void awaitDurable(long seq) throws IOException {
+        if (!fsync || syncedSeq >= seq) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            long appended = lastSeq;
+            channel.force(false);
+            syncedSeq = appended;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Records that every entry up to seq is committed to the database. With
+     * fsync on, the new checkpoint file and its rename are both on disk
+     * before the journal is truncated, so a crash never loses the journal
+     * while the old checkpoint still stands.
+     */
+    public void checkpoint(long seq) throws IOException {
+        Path tmp = checkpointPath.resolveSibling("attempts.checkpoint.tmp");
+        try (FileChannel out = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (fsync) {
+            forceDirectory(checkpointPath.getParent());
+        }
+
+        appendLock.lock();
+        try {
+            if (seq == lastSeq) {
+                channel.truncate(0);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Sets aside an entry the database rejected for good, so the entries
+     * after it can still be checkpointed. One JSON line per entry, with the
+     * error, for an operator to inspect and reapply.
+     */
+    public void deadLetter(Entry entry, String error) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(new DeadLetter(entry, error)) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel deadLetters = FileChannel.open(deadLetterPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                deadLetters.write(buffer);
+            }
+            if (fsync) {
+                deadLetters.force(false);
+            }
+        }
+    }
+
+    // Makes a rename in the directory durable; not every platform can open a directory for this
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot force attempt journal directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        channel.close();
+    }
+}
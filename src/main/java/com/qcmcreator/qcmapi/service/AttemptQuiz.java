@@ -0,0 +1,10 @@
+
+package com.qcmcreator.qcmapi.service;
+
+// Grading and delivery forms of the same quiz version
+public record AttemptQuiz(AnswerKey answerKey, CompactQuiz delivery) {
+
+    public static AttemptQuiz of(CachedQuiz cached) {
+        return new AttemptQuiz(AnswerKey.of(cached), CompactQuiz.of(cached));
+    }
+}
@@ -0,0 +1,52 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Answer keys and delivery forms by quiz id and version, built together from
+ * the cached quiz payload so both describe the same version. A version never
+ * changes once built, so entries are not invalidated when their quiz changes:
+ * an edit produces a new version under a new key, and the old one ages out
+ * once no attempt asks for it.
+ */
+@Component
+public class AttemptQuizCache {
+
+    public record Key(Long quizId, String version) {
+    }
+
+    @Value("${attempt.quiz-cache.max-size}")
+    private long maxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Key, AttemptQuiz> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "attempt.quiz");
+    }
+
+    // The loader may return null, in which case nothing is cached
+    public AttemptQuiz get(Long quizId, String version, Function<Key, AttemptQuiz> loader) {
+        return cache.get(new Key(quizId, version), loader);
+    }
+
+    public AttemptQuiz getIfPresent(Long quizId, String version) {
+        return cache.getIfPresent(new Key(quizId, version));
+    }
+}
@@ -0,0 +1,351 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.dto.request.AnswerSubmission;
+import com.qcmcreator.qcmapi.dto.response.AttemptResponse;
+import com.qcmcreator.qcmapi.model.AttemptAnswer;
+import com.qcmcreator.qcmapi.model.AttemptStatus;
+import com.qcmcreator.qcmapi.model.QuizAttempt;
+import com.qcmcreator.qcmapi.repository.AttemptAnswerRepository;
+import com.qcmcreator.qcmapi.repository.QuizAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Starts, answers and finishes quiz attempts. Answers are graded as they are
+ * submitted against the in-memory {@link AnswerKey}, and live attempt state is
+ * kept in memory, so requests neither read nor wait on the database: rows are
+ * handed to {@link AttemptWriteBehind}. State is reloaded from the database
+ * only for attempts not seen since a restart, or evicted with none of their
+ * writes still queued.
+ */
+@Service
+public class AttemptService {
+
+    // Matches the allocationSize of the attempt sequences
+    private static final int ID_BLOCK_SIZE = 50;
+
+    // Match the attempt_answers columns, so a submission never reaches the write-behind too long to insert
+    private static final int MAX_DIRECT_ANSWER_LENGTH = 500;
+    private static final int MAX_SELECTED_OPTIONS_LENGTH = 1000;
+
+    @Autowired
+    private QuizAttemptRepository attemptRepository;
+
+    @Autowired
+    private AttemptAnswerRepository answerRepository;
+
+    @Autowired
+    private AttemptQuizCache attemptQuizCache;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private AttemptWriteBehind writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${attempt.state.max-size}")
+    private long stateMaxSize;
+
+    @Value("${attempt.state.ttl-minutes}")
+    private long stateTtlMinutes;
+
+    private Cache<Long, AttemptState> states;
+    // States with writes still queued, kept even once the cache evicts them: a
+    // reload from the database would not see those writes
+    private final ConcurrentHashMap<Long, AttemptState> pinned = new ConcurrentHashMap<>();
+    private IdBlockAllocator attemptIds;
+    private IdBlockAllocator answerIds;
+
+    @PostConstruct
+    void init() {
+        states = Caffeine.newBuilder()
+                .maximumSize(stateMaxSize)
+                .expireAfterAccess(Duration.ofMinutes(stateTtlMinutes))
+                .build();
+        writeBehind.onDone(this::unpin);
+
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        attemptIds = new IdBlockAllocator(jdbcTemplate,
+                dialect.getSequenceSupport().getSequenceNextValString("attempt_seq"), ID_BLOCK_SIZE);
+        answerIds = new IdBlockAllocator(jdbcTemplate,
+                dialect.getSequenceSupport().getSequenceNextValString("attempt_answer_seq"), ID_BLOCK_SIZE);
+    }
+
+    // The current version of the quiz, or null if the quiz does not exist
+    public AttemptQuiz getAttemptQuiz(Long quizId) {
+        CachedQuiz cached = quizService.getQuizPayload(quizId);
+        if (cached == null) {
+            return null;
+        }
+        return attemptQuizCache.get(quizId, cached.getEtag(), key -> AttemptQuiz.of(cached));
+    }
+
+    // The given version of the quiz, or null if it is neither cached nor still current
+    private AttemptQuiz getAttemptQuiz(Long quizId, String version) {
+        AttemptQuiz quiz = attemptQuizCache.getIfPresent(quizId, version);
+        if (quiz == null) {
+            quiz = getAttemptQuiz(quizId);
+        }
+        return quiz != null && quiz.answerKey().getVersion().equals(version) ? quiz : null;
+    }
+
+    /**
+     * Starts an attempt on a random sample of questionCount questions, or on
+     * all of them when questionCount is null or not smaller than the quiz.
+     * Empty if the quiz does not exist.
+     *
+     * @throws WriteBehindFullException if the write buffer is full
+     */
+    public Optional<AttemptResponse> startAttempt(Long quizId, Integer questionCount, Long userId) {
+        AttemptQuiz quiz = getAttemptQuiz(quizId);
+        if (quiz == null) {
+            return Optional.empty();
+        }
+
+        CompactQuiz delivery = quiz.delivery();
+        int size = questionCount == null || questionCount <= 0
+                ? delivery.getQuestionCount()
+                : Math.min(questionCount, delivery.getQuestionCount());
+        long id = attemptIds.next();
+
+        // The attempt id seeds its sample and shuffles, so they never need to be stored
+        AttemptState state = new AttemptState(id, quizId, userId, delivery.getVersion(), quiz, size,
+                delivery.sampleQuestionIds(id, size), LocalDateTime.now());
+        submit(state, List.of(new AttemptWrite.Started(state.id, state.quizId, state.userId,
+                state.quizVersion, state.maxScore, state.maxScore, state.startedAt)));
+        states.put(state.id, state);
+        return Optional.of(toResponse(state));
+    }
+
+    /**
+     * Records a batch of answers, graded against the quiz version the attempt
+     * started on; a question answered again replaces its earlier answer.
+     * Empty if the attempt does not exist or belongs to someone else.
+     *
+     * @throws IllegalStateException if the attempt is already finished, or its
+     *         quiz version is gone
+     * @throws IllegalArgumentException if a question is not part of the quiz,
+     *         or an answer is too long to store
+     * @throws WriteBehindFullException if the write buffer is full
+     */
+    public Optional<AttemptResponse> submitAnswers(Long attemptId, List<AnswerSubmission> submissions, Long userId) {
+        Optional<AttemptState> stateOpt = findOwnState(attemptId, userId);
+        if (stateOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        AttemptState state = stateOpt.get();
+
+        if (state.quiz == null) {
+            throw new IllegalStateException("Quiz changed since the attempt started");
+        }
+        AnswerKey key = state.quiz.answerKey();
+
+        // Last answer wins when a batch repeats a question
+        Map<Long, AnswerSubmission> byQuestion = new LinkedHashMap<>();
+        for (AnswerSubmission submission : submissions) {
+            if (submission.getQuestionId() == null || !state.isDelivered(submission.getQuestionId())
+                    || !key.hasQuestion(submission.getQuestionId())) {
+                throw new IllegalArgumentException("Unknown question " + submission.getQuestionId());
+            }
+            if (submission.getDirectAnswer() != null && submission.getDirectAnswer().length() > MAX_DIRECT_ANSWER_LENGTH) {
+                throw new IllegalArgumentException("Answer to question " + submission.getQuestionId() + " is too long");
+            }
+            String selected = joinIds(submission.getOptionIds());
+            if (selected != null && selected.length() > MAX_SELECTED_OPTIONS_LENGTH) {
+                throw new IllegalArgumentException("Too many options selected for question " + submission.getQuestionId());
+            }
+            byQuestion.put(submission.getQuestionId(), submission);
+        }
+
+        state.lock.lock();
+        try {
+            if (state.status != AttemptStatus.IN_PROGRESS) {
+                throw new IllegalStateException("Attempt already finished");
+            }
+            if (byQuestion.isEmpty()) {
+                return Optional.of(toResponse(state));
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<AttemptWrite> writes = new ArrayList<>(byQuestion.size());
+            Map<Long, Boolean> graded = new LinkedHashMap<>();
+            for (AnswerSubmission submission : byQuestion.values()) {
+                boolean correct = key.isCorrect(submission.getQuestionId(), submission.getOptionIds(), submission.getDirectAnswer());
+                graded.put(submission.getQuestionId(), correct);
+                writes.add(new AttemptWrite.Answered(answerIds.next(), attemptId, submission.getQuestionId(),
+                        joinIds(submission.getOptionIds()), submission.getDirectAnswer(), correct, now));
+            }
+
+            // Only update the score once the writes are accepted
+            submit(state, writes);
+            for (Map.Entry<Long, Boolean> answer : graded.entrySet()) {
+                Boolean previous = state.answers.put(answer.getKey(), answer.getValue());
+                if (Boolean.TRUE.equals(previous)) {
+                    state.score--;
+                }
+                if (answer.getValue()) {
+                    state.score++;
+                }
+            }
+            return Optional.of(toResponse(state));
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the attempt and reveals its score. Finishing twice returns the same result.
+     *
+     * @throws WriteBehindFullException if the write buffer is full
+     */
+    public Optional<AttemptResponse> finishAttempt(Long attemptId, Long userId) {
+        return findOwnState(attemptId, userId).map(state -> {
+            state.lock.lock();
+            try {
+                if (state.status == AttemptStatus.IN_PROGRESS) {
+                    LocalDateTime now = LocalDateTime.now();
+                    submit(state, List.of(new AttemptWrite.Finished(state.id, state.score, now)));
+                    state.status = AttemptStatus.FINISHED;
+                    state.finishedAt = now;
+                }
+                return toResponse(state);
+            } finally {
+                state.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * The questions of the attempt, without answers, in the attempt's own
+     * order. Rebuilt from the attempt's seed and quiz version on every call,
+     * so it always matches the questions being graded; no database work.
+     *
+     * @throws IllegalStateException if the attempt's quiz version is gone
+     */
+    public Optional<StudentQuizDto> getDelivery(Long attemptId, Long userId) {
+        return findOwnState(attemptId, userId).map(state -> {
+            if (state.quiz == null) {
+                throw new IllegalStateException("Quiz changed since the attempt started");
+            }
+            return state.quiz.delivery().deliver(state.id, state.maxScore);
+        });
+    }
+
+    public Optional<AttemptResponse> getAttempt(Long attemptId, Long userId) {
+        return findOwnState(attemptId, userId).map(state -> {
+            state.lock.lock();
+            try {
+                return toResponse(state);
+            } finally {
+                state.lock.unlock();
+            }
+        });
+    }
+
+    private Optional<AttemptState> findOwnState(Long attemptId, Long userId) {
+        return Optional.ofNullable(states.get(attemptId, id -> {
+                    AttemptState state = pinned.get(id);
+                    return state != null ? state : loadState(id);
+                }))
+                .filter(state -> state.userId.equals(userId));
+    }
+
+    // Pins the state until the write-behind is done with these writes
+    private void submit(AttemptState state, List<AttemptWrite> writes) {
+        pinned.compute(state.id, (id, current) -> {
+            state.pendingWrites += writes.size();
+            return state;
+        });
+        try {
+            writeBehind.submit(writes);
+        } catch (RuntimeException e) {
+            release(state.id, writes.size());
+            throw e;
+        }
+    }
+
+    private void unpin(List<AttemptJournal.Entry> entries) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (AttemptJournal.Entry entry : entries) {
+            counts.merge(entry.write().attemptId(), 1, Integer::sum);
+        }
+        counts.forEach(this::release);
+    }
+
+    private void release(Long attemptId, int writes) {
+        pinned.computeIfPresent(attemptId, (id, state) -> (state.pendingWrites -= writes) > 0 ? state : null);
+    }
+
+    /*
+     * Rebuilds the state of an attempt last seen before a restart. Its quiz
+     * version is only known while cached or still current; otherwise the state
+     * has no quiz, and the attempt can be read and finished but not answered.
+     */
+    private AttemptState loadState(Long attemptId) {
+        Optional<QuizAttempt> attemptOpt = attemptRepository.findById(attemptId);
+        if (attemptOpt.isEmpty()) {
+            return null;
+        }
+        QuizAttempt attempt = attemptOpt.get();
+
+        AttemptQuiz quiz = getAttemptQuiz(attempt.getQuizId(), attempt.getQuizVersion());
+        long[] delivered = quiz != null ? quiz.delivery().sampleQuestionIds(attempt.getId(), attempt.getQuestionCount()) : new long[0];
+        AttemptState state = new AttemptState(attempt.getId(), attempt.getQuizId(), attempt.getUserId(),
+                attempt.getQuizVersion(), quiz, attempt.getMaxScore(), delivered, attempt.getStartedAt());
+        state.status = attempt.getStatus();
+        state.finishedAt = attempt.getFinishedAt();
+        for (AttemptAnswer answer : answerRepository.findByAttemptIdOrderById(attemptId)) {
+            state.answers.put(answer.getQuestionId(), answer.isCorrect());
+        }
+        state.score = state.status == AttemptStatus.FINISHED
+                ? attempt.getScore()
+                : (int) state.answers.values().stream().filter(Boolean::booleanValue).count();
+        return state;
+    }
+
+    private static String joinIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static AttemptResponse toResponse(AttemptState state) {
+        boolean finished = state.status == AttemptStatus.FINISHED;
+        return new AttemptResponse(
+                state.id,
+                state.quizId,
+                state.status,
+                finished ? state.score : null,
+                state.maxScore,
+                state.startedAt,
+                state.finishedAt);
+    }
+}
@@ -0,0 +1,50 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.model.AttemptStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Live state of one attempt; mutable fields are guarded by lock, which unlike a monitor
+// does not pin a virtual thread to its carrier while the write-behind is waited on
+class AttemptState {
+    final Long id;
+    final Long quizId;
+    final Long userId;
+    final String quizVersion;
+    // The version the attempt started on; null once that version can no longer be rebuilt
+    final AttemptQuiz quiz;
+    final int maxScore;
+    // Sorted ids of the questions delivered to this attempt
+    final long[] questionIds;
+    final LocalDateTime startedAt;
+    final ReentrantLock lock = new ReentrantLock();
+
+    AttemptStatus status = AttemptStatus.IN_PROGRESS;
+    int score;
+    LocalDateTime finishedAt;
+    // Question id -> whether its latest answer is correct
+    final Map<Long, Boolean> answers = new HashMap<>();
+    // Writes submitted but not yet written; guarded by the service's pinned map
+    int pendingWrites;
+
+    AttemptState(Long id, Long quizId, Long userId, String quizVersion, AttemptQuiz quiz, int maxScore,
+                 long[] questionIds, LocalDateTime startedAt) {
+        this.id = id;
+        this.quizId = quizId;
+        this.userId = userId;
+        this.quizVersion = quizVersion;
+        this.quiz = quiz;
+        this.maxScore = maxScore;
+        this.questionIds = questionIds;
+        this.startedAt = startedAt;
+    }
+
+    boolean isDelivered(long questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+}
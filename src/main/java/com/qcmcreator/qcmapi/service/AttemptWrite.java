@@ -0,0 +1,30 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.LocalDateTime;
+
+// A pending attempt row change, journaled and then written in JDBC batches
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = AttemptWrite.Started.class, name = "started"),
+        @JsonSubTypes.Type(value = AttemptWrite.Answered.class, name = "answered"),
+        @JsonSubTypes.Type(value = AttemptWrite.Finished.class, name = "finished")
+})
+public sealed interface AttemptWrite {
+
+    Long attemptId();
+
+    record Started(Long attemptId, Long quizId, Long userId, String quizVersion, int maxScore, int questionCount,
+                   LocalDateTime startedAt) implements AttemptWrite {
+    }
+
+    record Answered(Long answerId, Long attemptId, Long questionId, String selectedOptions, String directAnswer,
+                    boolean correct, LocalDateTime answeredAt) implements AttemptWrite {
+    }
+
+    record Finished(Long attemptId, int score, LocalDateTime finishedAt) implements AttemptWrite {
+    }
+}
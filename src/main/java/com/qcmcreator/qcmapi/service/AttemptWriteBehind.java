@@ -0,0 +1,297 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded write-behind buffer for attempt and answer rows. Writes are
+ * journaled, then queued on a lock-free queue; a single flusher thread drains
+ * them into JDBC batches once a batch fills up or the flush interval passes.
+ * Inserts skip rows that already exist, so replaying the journal after a crash
+ * between commit and checkpoint does not duplicate anything. A batch the
+ * database rejects for good is retried row by row, and the rows it still
+ * rejects go to the journal's dead-letter file, so one bad row cannot stall
+ * every write behind it; other failures keep the batch for the next round.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AttemptWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptWriteBehind.class);
+
+    private static final String INSERT_ATTEMPT =
+            "insert into quiz_attempts (id, quiz_id, user_id, quiz_version, status, score, max_score, question_count, started_at) " +
+            "select ?, ?, ?, ?, 'IN_PROGRESS', 0, ?, ?, ? where not exists (select 1 from quiz_attempts where id = ?)";
+    private static final String INSERT_ANSWER =
+            "insert into attempt_answers (id, attempt_id, question_id, selected_options, direct_answer, correct, answered_at) " +
+            "select ?, ?, ?, ?, ?, ?, ? where not exists (select 1 from attempt_answers where id = ?)";
+    private static final String FINISH_ATTEMPT =
+            "update quiz_attempts set status = 'FINISHED', score = ?, finished_at = ? where id = ?";
+
+    @Value("${attempt.write-behind.capacity}")
+    private int capacity;
+
+    @Value("${attempt.write-behind.batch-size}")
+    private int batchSize;
+
+    @Value("${attempt.write-behind.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Autowired
+    private AttemptJournal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentLinkedQueue<AttemptJournal.Entry> queue = new ConcurrentLinkedQueue<>();
+    // Queued plus in-flight entries; bounds the buffer without locking
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Held while flushing: by the flusher thread, and by shutdown for the final flush
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Guarded by flushLock: a failed batch is retried before anything newer
+    private List<AttemptJournal.Entry> retry = List.of();
+
+    // Told about entries that are written or dead-lettered, in sequence order
+    private volatile Consumer<List<AttemptJournal.Entry>> done = entries -> {
+    };
+
+    private volatile boolean running;
+    private Thread flusher;
+    private Counter rejected;
+    private Counter deadLettered;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void start() throws IOException {
+        meterRegistry.gauge("qcm.attempt.write.queue", size);
+        rejected = meterRegistry.counter("qcm.attempt.write.rejected");
+        deadLettered = meterRegistry.counter("qcm.attempt.write.dead-letter");
+        flushTimer = meterRegistry.timer("qcm.attempt.write.flush");
+
+        List<AttemptJournal.Entry> pending = journal.recover();
+        if (!pending.isEmpty()) {
+            logger.info("Replaying {} journaled attempt writes", pending.size());
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<AttemptJournal.Entry> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                if (writeBatch(batch) < batch.size()) {
+                    throw new IllegalStateException("Could not replay journaled attempt writes");
+                }
+                journal.checkpoint(batch.get(batch.size() - 1).seq());
+            }
+        }
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "attempt-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Journals and queues the writes as one unit, returning once the journal
+     * has them on disk.
+     *
+     * @throws WriteBehindFullException if the buffer cannot take them all
+     */
+    public void submit(List<AttemptWrite> writes) {
+        int count = writes.size();
+        if (!reserve(count)) {
+            rejected.increment();
+            throw new WriteBehindFullException("Attempt write buffer is full");
+        }
+        long seq;
+        try {
+            seq = journal.append(writes, queue::add);
+        } catch (IOException e) {
+            size.addAndGet(-count);
+            throw new UncheckedIOException(e);
+        }
+        if (size.get() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        // Queued already: if the force fails, the writes still reach the database
+        try {
+            journal.awaitDurable(seq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Called from the flusher thread; must not block it for long
+    public void onDone(Consumer<List<AttemptJournal.Entry>> listener) {
+        this.done = listener;
+    }
+
+    private boolean reserve(int count) {
+        while (true) {
+            int current = size.get();
+            if (current + count > capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            flush();
+        }
+    }
+
+    // Drains everything queued so far; stops at the first batch that fails for a transient reason
+    void flush() {
+        flushLock.lock();
+        try {
+            flushBatches();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatches() {
+        while (true) {
+            List<AttemptJournal.Entry> batch = retry.isEmpty() ? drain() : retry;
+            if (batch.isEmpty()) {
+                return;
+            }
+            int written = writeBatch(batch);
+            if (written > 0) {
+                List<AttemptJournal.Entry> finished = batch.subList(0, written);
+                try {
+                    journal.checkpoint(finished.get(written - 1).seq());
+                } catch (IOException e) {
+                    // The rows are committed; a later checkpoint covers them, and replay skips existing rows
+                    logger.warn("Attempt journal checkpoint failed: {}", e.getMessage());
+                }
+                size.addAndGet(-written);
+                done.accept(finished);
+            }
+            retry = written < batch.size() ? List.copyOf(batch.subList(written, batch.size())) : List.of();
+            if (!retry.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Writes the batch in one transaction. If the database rejects it for
+     * good, writes it again one row per transaction and dead-letters the rows
+     * still rejected. Returns how many leading entries are dealt with; fewer
+     * than the batch size when a transient failure stopped it.
+     */
+    private int writeBatch(List<AttemptJournal.Entry> batch) {
+        try {
+            flushTimer.record(() -> write(batch));
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Attempt write batch of {} rejected, writing it row by row: {}", batch.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Attempt write batch of {} failed, will retry: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            AttemptJournal.Entry entry = batch.get(i);
+            try {
+                write(List.of(entry));
+            } catch (DataIntegrityViolationException e) {
+                try {
+                    journal.deadLetter(entry, e.getMostSpecificCause().getMessage());
+                } catch (IOException io) {
+                    logger.error("Could not dead-letter attempt write {}, will retry: {}", entry.seq(), io.getMessage());
+                    return i;
+                }
+                deadLettered.increment();
+                logger.error("Dead-lettered attempt write {}: {}", entry.seq(), e.getMostSpecificCause().getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Attempt write {} failed, will retry: {}", entry.seq(), e.getMessage());
+                return i;
+            }
+        }
+        return batch.size();
+    }
+
+    private List<AttemptJournal.Entry> drain() {
+        List<AttemptJournal.Entry> batch = new ArrayList<>(batchSize);
+        AttemptJournal.Entry entry;
+        while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    // Entries are in sequence order, so an attempt is always inserted before it is finished
+    private void write(List<AttemptJournal.Entry> batch) {
+        List<Object[]> attempts = new ArrayList<>();
+        List<Object[]> answers = new ArrayList<>();
+        List<Object[]> finishes = new ArrayList<>();
+        for (AttemptJournal.Entry entry : batch) {
+            if (entry.write() instanceof AttemptWrite.Started started) {
+                attempts.add(new Object[]{started.attemptId(), started.quizId(), started.userId(), started.quizVersion(),
+                        started.maxScore(), started.questionCount(), started.startedAt(), started.attemptId()});
+            } else if (entry.write() instanceof AttemptWrite.Answered answered) {
+                answers.add(new Object[]{answered.answerId(), answered.attemptId(), answered.questionId(),
+                        answered.selectedOptions(), answered.directAnswer(), answered.correct(), answered.answeredAt(),
+                        answered.answerId()});
+            } else if (entry.write() instanceof AttemptWrite.Finished finished) {
+                finishes.add(new Object[]{finished.score(), finished.finishedAt(), finished.attemptId()});
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!attempts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ATTEMPT, attempts);
+            }
+            if (!answers.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ANSWER, answers);
+            }
+            if (!finishes.isEmpty()) {
+                jdbcTemplate.batchUpdate(FINISH_ATTEMPT, finishes);
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+        if (size.get() > 0) {
+            logger.warn("{} attempt writes left unflushed; they will be replayed from the journal", size.get());
+        }
+    }
+}
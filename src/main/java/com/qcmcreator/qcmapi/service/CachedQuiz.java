@@ -0,0 +1,81 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An assembled quiz together with its serialized JSON, an optional gzip variant,
+ * a CBOR variant and a strong ETag derived from the JSON content.
+ */
+@Getter
+public class CachedQuiz {
+    // Below this size gzip costs more than it saves
+    static final int GZIP_MIN_BYTES = 1024;
+
+    private final QuizDto quiz;
+    private final byte[] json;
+    private final byte[] gzipJson;
+    // Binary encoding of the same tree; no repeated field names as text
+    private final byte[] cbor;
+    private final String etag;
+
+    private CachedQuiz(QuizDto quiz, byte[] json, byte[] gzipJson, byte[] cbor, String etag) {
+        this.quiz = quiz;
+        this.json = json;
+        this.gzipJson = gzipJson;
+        this.cbor = cbor;
+        this.etag = etag;
+    }
+
+    public static CachedQuiz of(QuizDto quiz, ObjectMapper objectMapper, ObjectMapper cborMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(quiz);
+            byte[] gzipJson = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            byte[] cbor = cborMapper.writeValueAsBytes(quiz);
+            return new CachedQuiz(quiz, json, gzipJson, cbor, "\"" + contentHash(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quiz " + quiz.getId(), e);
+        }
+    }
+
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    public String getCborEtag() {
+        return etag.substring(0, etag.length() - 1) + "-cbor\"";
+    }
+
+    int weight() {
+        return QuizCache.estimateSize(quiz) + json.length + (gzipJson != null ? gzipJson.length : 0) + cbor.length;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress quiz payload", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String contentHash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
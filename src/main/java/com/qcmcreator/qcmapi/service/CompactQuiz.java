@@ -0,0 +1,173 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.StudentOptionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuestionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Technology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Immutable, answer-free delivery form of one quiz version. Questions and
+ * options are held in parallel primitive arrays, with the options of question
+ * {@code q} at {@code optionStart[q]} to {@code optionStart[q + 1]}; texts
+ * are the same instances as in the cached quiz it is built from. Deliveries
+ * are sampled and shuffled from a seed, so the same seed always yields the
+ * same quiz.
+ */
+public final class CompactQuiz {
+    private final long quizId;
+    private final String version;
+    private final String title;
+    private final String description;
+    private final Technology technology;
+
+    private final long[] questionIds;
+    private final String[] questionTexts;
+    private final String[] imageUrls;
+    private final boolean[] directAnswer;
+    private final int[] optionStart;
+    private final long[] optionIds;
+    private final String[] optionTexts;
+
+    private CompactQuiz(long quizId, String version, String title, String description, Technology technology,
+                        long[] questionIds, String[] questionTexts, String[] imageUrls, boolean[] directAnswer,
+                        int[] optionStart, long[] optionIds, String[] optionTexts) {
+        this.quizId = quizId;
+        this.version = version;
+        this.title = title;
+        this.description = description;
+        this.technology = technology;
+        this.questionIds = questionIds;
+        this.questionTexts = questionTexts;
+        this.imageUrls = imageUrls;
+        this.directAnswer = directAnswer;
+        this.optionStart = optionStart;
+        this.optionIds = optionIds;
+        this.optionTexts = optionTexts;
+    }
+
+    public static CompactQuiz of(CachedQuiz cached) {
+        QuizDto quiz = cached.getQuiz();
+        List<QuestionDto> questions = quiz.getQuestions();
+        int count = questions.size();
+
+        int totalOptions = 0;
+        for (QuestionDto question : questions) {
+            totalOptions += optionsOf(question).size();
+        }
+
+        long[] questionIds = new long[count];
+        String[] questionTexts = new String[count];
+        String[] imageUrls = new String[count];
+        boolean[] directAnswer = new boolean[count];
+        int[] optionStart = new int[count + 1];
+        long[] optionIds = new long[totalOptions];
+        String[] optionTexts = new String[totalOptions];
+
+        int option = 0;
+        for (int q = 0; q < count; q++) {
+            QuestionDto question = questions.get(q);
+            questionIds[q] = question.getId();
+            questionTexts[q] = question.getText();
+            imageUrls[q] = question.getImageUrl();
+            directAnswer[q] = question.getQuestionType() == QuestionType.DIRECT_ANSWER;
+            optionStart[q] = option;
+            for (OptionDto optionDto : optionsOf(question)) {
+                optionIds[option] = optionDto.getId();
+                optionTexts[option] = optionDto.getText();
+                option++;
+            }
+        }
+        optionStart[count] = option;
+
+        return new CompactQuiz(quiz.getId(), cached.getEtag(), quiz.getTitle(), quiz.getDescription(),
+                quiz.getTechnology(), questionIds, questionTexts, imageUrls, directAnswer, optionStart, optionIds, optionTexts);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    /**
+     * Ids of the questions a delivery with this seed and size contains, sorted
+     * for binary search.
+     */
+    public long[] sampleQuestionIds(long seed, int size) {
+        int[] picked = pickQuestions(new SplittableRandom(seed), size);
+        long[] ids = new long[picked.length];
+        for (int i = 0; i < picked.length; i++) {
+            ids[i] = questionIds[picked[i]];
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * A random sample of {@code size} questions in random order, each with its
+     * options shuffled.
+     */
+    public StudentQuizDto deliver(long seed, int size) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] picked = pickQuestions(random, size);
+
+        List<StudentQuestionDto> questions = new ArrayList<>(picked.length);
+        for (int q : picked) {
+            int from = optionStart[q];
+            int optionCount = optionStart[q + 1] - from;
+
+            int[] order = new int[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                order[i] = from + i;
+            }
+            shuffle(random, order, optionCount);
+
+            List<StudentOptionDto> options = new ArrayList<>(optionCount);
+            for (int o : order) {
+                options.add(new StudentOptionDto(optionIds[o], optionTexts[o]));
+            }
+            QuestionType type = directAnswer[q] ? QuestionType.DIRECT_ANSWER : QuestionType.MULTIPLE_CHOICE;
+            questions.add(new StudentQuestionDto(questionIds[q], questionTexts[q], imageUrls[q], type, options));
+        }
+        return new StudentQuizDto(quizId, title, description, technology, questions);
+    }
+
+    // Partial Fisher-Yates: the first size slots end up a uniform sample in random order
+    private int[] pickQuestions(SplittableRandom random, int size) {
+        int count = questionIds.length;
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int picked = size <= 0 ? count : Math.min(size, count);
+        shuffle(random, order, picked);
+        return picked == count ? order : Arrays.copyOf(order, picked);
+    }
+
+    private static void shuffle(SplittableRandom random, int[] values, int steps) {
+        for (int i = 0; i < steps && i < values.length - 1; i++) {
+            int j = i + random.nextInt(values.length - i);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    private static List<OptionDto> optionsOf(QuestionDto question) {
+        if (question.getQuestionType() == QuestionType.DIRECT_ANSWER || question.getOptions() == null) {
+            return List.of();
+        }
+        return question.getOptions();
+    }
+}
@@ -0,0 +1,45 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from blocks reserved on a database sequence that increments
+ * by the block size, so ids are known before their rows are written. The
+ * sequence must not be used by anything else.
+ */
+class IdBlockAllocator {
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private final int blockSize;
+
+    // A lock rather than synchronized: a refill queries the database, which
+    // would pin a virtual thread to its carrier inside a monitor
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private long next;
+    private long limit;
+
+    IdBlockAllocator(JdbcTemplate jdbcTemplate, String nextValueSql, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = nextValueSql;
+        this.blockSize = blockSize;
+    }
+
+    long next() {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                Long start = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                next = start;
+                limit = start + blockSize;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
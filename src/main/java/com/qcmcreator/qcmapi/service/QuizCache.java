@@ -0,0 +1,97 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.response.CacheStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of fully assembled and serialized quizzes, bounded by an
+ * estimate of their heap size. Entries are evicted once the transaction that changed the quiz has
+ * committed, so a concurrent read cannot re-populate it with the old state.
+ */
+@Component
+public class QuizCache {
+
+    @Value("${quiz.cache.max-weight-bytes}")
+    private long maxWeightBytes;
+
+    @Value("${quiz.cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, CachedQuiz> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, CachedQuiz quiz) -> quiz.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quiz.payload");
+    }
+
+    // The loader may return null, in which case nothing is cached
+    public CachedQuiz get(Long id, Function<Long, CachedQuiz> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        cache.invalidateAll(event.getQuizIds());
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+        return new CacheStatsResponse(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate(),
+                cache.estimatedSize(),
+                weight);
+    }
+
+    // Rough shallow+deep size of the DTO tree; only needs to be proportional
+    static int estimateSize(QuizDto quiz) {
+        long size = 64 + sizeOf(quiz.getTitle()) + sizeOf(quiz.getDescription());
+        if (quiz.getQuestions() != null) {
+            for (QuestionDto question : quiz.getQuestions()) {
+                size += 64 + sizeOf(question.getText()) + sizeOf(question.getImageUrl()) + sizeOf(question.getDirectAnswer());
+                if (question.getOptions() != null) {
+                    for (OptionDto option : question.getOptions()) {
+                        size += 40 + sizeOf(option.getText());
+                    }
+                }
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
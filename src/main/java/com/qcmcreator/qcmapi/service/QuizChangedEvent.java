@@ -0,0 +1,19 @@
+package com.qcmcreator.qcmapi.service;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Published by QuizService whenever a quiz is created, updated or deleted, and once per saved chunk of an import
+@Getter
+public class QuizChangedEvent {
+    private final List<Long> quizIds;
+
+    public QuizChangedEvent(Long quizId) {
+        this(List.of(quizId));
+    }
+
+    public QuizChangedEvent(List<Long> quizIds) {
+        this.quizIds = List.copyOf(quizIds);
+    }
+}
@@ -0,0 +1,204 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.StudentOptionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuestionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.model.Option;
+import com.qcmcreator.qcmapi.model.Question;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.repository.OptionRepository;
+import com.qcmcreator.qcmapi.repository.QuestionRepository;
+import com.qcmcreator.qcmapi.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds {@link QuizDto} trees in a fixed number of queries: quizzes with their
+ * questions through a fetch join, then every option of those questions through
+ * batched {@code IN (...)} lookups, grouped in memory. {@link StudentQuizDto}
+ * trees come from column projections that never select the answers.
+ */
+@Component
+public class QuizGraphLoader {
+
+    // Keeps IN lists well below the bind parameter limits of common databases
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Every quiz of one author, answers included
+    @Transactional(readOnly = true)
+    public List<QuizDto> loadAllByOwner(Long userId) {
+        List<Quiz> quizzes = quizRepository.findAllWithQuestionsByUserId(userId);
+        Map<Long, List<OptionDto>> optionsByQuestion = groupOptions(optionRepository.findMultipleChoiceOptionsByUserId(userId));
+
+        List<QuizDto> quizDtos = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes) {
+            quizDtos.add(toDto(quiz, quiz.getQuestions(), optionsByQuestion));
+        }
+        return quizDtos;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<QuizDto> loadById(Long id) {
+        return quizRepository.findWithQuestionsById(id).map(quiz -> {
+            Map<Long, List<OptionDto>> optionsByQuestion = loadOptions(multipleChoiceIds(quiz.getQuestions()));
+            return toDto(quiz, quiz.getQuestions(), optionsByQuestion);
+        });
+    }
+
+    /**
+     * The quiz as shown to students, in three projection queries: header,
+     * questions, then the options of its multiple choice questions.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StudentQuizDto> loadStudentView(Long id) {
+        return quizRepository.findHeaderById(id).map(header -> {
+            Map<Long, List<StudentOptionDto>> optionsByQuestion = new HashMap<>();
+            for (OptionRepository.StudentOptionRow option : optionRepository.findStudentRowsByQuizId(id)) {
+                optionsByQuestion.computeIfAbsent(option.getQuestionId(), k -> new ArrayList<>())
+                        .add(new StudentOptionDto(option.getId(), option.getText()));
+            }
+
+            List<QuestionRepository.StudentQuestionRow> rows = questionRepository.findStudentRowsByQuizId(id);
+            List<StudentQuestionDto> questions = new ArrayList<>(rows.size());
+            for (QuestionRepository.StudentQuestionRow row : rows) {
+                questions.add(new StudentQuestionDto(row.getId(), row.getText(), row.getImageUrl(), row.getQuestionType(),
+                        optionsByQuestion.getOrDefault(row.getId(), new ArrayList<>())));
+            }
+            return new StudentQuizDto(header.getId(), header.getTitle(), header.getDescription(),
+                    header.getTechnology(), questions);
+        });
+    }
+
+    /**
+     * Assembles DTOs for quizzes that were loaded without their questions,
+     * e.g. a page or a chunk of a stream.
+     */
+    @Transactional(readOnly = true)
+    public List<QuizDto> assemble(List<Quiz> quizzes) {
+        List<Long> quizIds = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes) {
+            quizIds.add(quiz.getId());
+        }
+
+        List<Question> questions = new ArrayList<>();
+        for (List<Long> chunk : chunks(quizIds)) {
+            questions.addAll(questionRepository.findByQuizIdIn(chunk));
+        }
+
+        Map<Long, List<Question>> questionsByQuiz = new HashMap<>();
+        for (Question question : questions) {
+            questionsByQuiz.computeIfAbsent(question.getQuiz().getId(), k -> new ArrayList<>()).add(question);
+        }
+
+        Map<Long, List<OptionDto>> optionsByQuestion = loadOptions(multipleChoiceIds(questions));
+
+        List<QuizDto> quizDtos = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes) {
+            List<Question> quizQuestions = questionsByQuiz.getOrDefault(quiz.getId(), Collections.emptyList());
+            quizDtos.add(toDto(quiz, quizQuestions, optionsByQuestion));
+        }
+        return quizDtos;
+    }
+
+    private Map<Long, List<OptionDto>> loadOptions(List<Long> questionIds) {
+        Map<Long, List<OptionDto>> optionsByQuestion = new HashMap<>();
+        for (List<Long> chunk : chunks(questionIds)) {
+            optionsByQuestion.putAll(groupOptions(optionRepository.findByQuestionIdIn(chunk)));
+        }
+        return optionsByQuestion;
+    }
+
+    private static List<Long> multipleChoiceIds(List<Question> questions) {
+        List<Long> ids = new ArrayList<>();
+        for (Question question : questions) {
+            if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
+                ids.add(question.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static Map<Long, List<OptionDto>> groupOptions(List<Option> options) {
+        Map<Long, List<OptionDto>> optionsByQuestion = new HashMap<>();
+        for (Option option : options) {
+            OptionDto optionDto = new OptionDto();
+            optionDto.setId(option.getId());
+            optionDto.setText(option.getText());
+            optionDto.setCorrect(option.isCorrect());
+
+            optionsByQuestion.computeIfAbsent(option.getQuestion().getId(), k -> new ArrayList<>()).add(optionDto);
+        }
+        return optionsByQuestion;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    // In-memory assembly only; the queries are measured by the QuizService metrics
+    private QuizDto toDto(Quiz quiz, List<Question> questions, Map<Long, List<OptionDto>> optionsByQuestion) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        QuizDto quizDto = new QuizDto();
+        quizDto.setId(quiz.getId());
+        quizDto.setTitle(quiz.getTitle());
+        quizDto.setDescription(quiz.getDescription());
+        quizDto.setTechnology(quiz.getTechnology());
+        quizDto.setCreatedAt(quiz.getCreatedAt());
+        // Reads the id from the lazy proxy without loading the user
+        quizDto.setOwnerId(quiz.getUser() != null ? quiz.getUser().getId() : null);
+
+        List<QuestionDto> questionDtos = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            QuestionDto questionDto = new QuestionDto();
+            questionDto.setId(question.getId());
+            questionDto.setText(question.getText());
+            questionDto.setImageUrl(question.getImageUrl());
+            questionDto.setQuestionType(question.getQuestionType());
+            questionDto.setDirectAnswer(question.getDirectAnswer());
+
+            // Only multiple choice questions carry options
+            List<OptionDto> optionDtos = question.getQuestionType() == QuestionType.MULTIPLE_CHOICE
+                    ? optionsByQuestion.getOrDefault(question.getId(), new ArrayList<>())
+                    : new ArrayList<>();
+
+            questionDto.setOptions(optionDtos);
+            questionDtos.add(questionDto);
+        }
+
+        quizDto.setQuestions(questionDtos);
+        sample.stop(meterRegistry.timer("qcm.quiz.assembly"));
+
+        return quizDto;
+    }
+}
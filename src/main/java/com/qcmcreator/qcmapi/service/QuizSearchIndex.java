@@ -0,0 +1,294 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.repository.QuestionRepository;
+import com.qcmcreator.qcmapi.repository.QuizRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over quiz title, description, technology and
+ * question texts. Terms live in a sorted map so a query token also matches
+ * every indexed term it prefixes. Reads are lock-free; writers are serialized
+ * and keep the index in step with committed quiz changes.
+ *
+ * Loads race with changes: a quiz read by the startup build or by one change
+ * listener may be out of date by the time it is applied. Every change stamps
+ * its quiz id from a logical clock, and a load is only applied if no change to
+ * that id was stamped after the load started; a deleted quiz's stamp acts as a
+ * tombstone against stale reinsertion.
+ */
+@Component
+public class QuizSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(QuizSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 4f;
+    private static final float TECHNOLOGY_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 2f;
+    private static final float QUESTION_WEIGHT = 1f;
+
+    // Prefix matches rank below whole-word matches of the same field
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // term -> quiz id -> weighted term frequency
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, IndexedQuiz> documents = new ConcurrentHashMap<>();
+
+    // Logical time of the last committed change per quiz id, kept for the life of the index
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> changedAt = new ConcurrentHashMap<>();
+
+    // Serializes writers so a document and its postings change together; readers never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private record IndexedQuiz(QuizSummaryDto summary, Map<String, Float> terms) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        Long lastId = 0L;
+        while (true) {
+            Long after = lastId;
+            long loadedAt = clock.get();
+            List<IndexedQuiz> chunk = transactionTemplate.execute(status -> loadChunk(after));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            for (IndexedQuiz quiz : chunk) {
+                put(quiz, loadedAt);
+            }
+            lastId = chunk.get(chunk.size() - 1).summary().getId();
+        }
+        logger.info("Quiz search index built: {} quizzes, {} terms in {} ms",
+                documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs after the change committed, in its own read-only transaction. The
+     * quizzes and their question texts are loaded with one IN query each per
+     * chunk of ids; ids no longer found were deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        List<Long> ids = event.getQuizIds();
+        long loadedAt = clock.incrementAndGet();
+        for (Long id : ids) {
+            changedAt.merge(id, loadedAt, Math::max);
+        }
+        for (int from = 0; from < ids.size(); from += BUILD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BUILD_CHUNK_SIZE, ids.size()));
+            Map<Long, List<String>> texts = questionTexts(chunk);
+            Set<Long> found = new HashSet<>();
+            for (Quiz quiz : quizRepository.findAllById(chunk)) {
+                found.add(quiz.getId());
+                put(index(quiz, texts.getOrDefault(quiz.getId(), List.of())), loadedAt);
+            }
+            for (Long id : chunk) {
+                if (!found.contains(id)) {
+                    remove(id, loadedAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Quizzes matching every token of the query, best match first. Each token
+     * matches whole terms and terms it is a prefix of.
+     */
+    public List<QuizSummaryDto> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Float> scores = null;
+        for (String token : tokens.stream().distinct().toList()) {
+            Map<Long, Float> tokenScores = scoreToken(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Float> matchedAll = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        matchedAll.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = matchedAll;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Float> finalScores = scores;
+        return finalScores.keySet().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .map(IndexedQuiz::summary)
+                .sorted(Comparator.<QuizSummaryDto>comparingDouble(summary -> finalScores.get(summary.getId())).reversed()
+                        .thenComparing(QuizSummaryDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .toList();
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Float>> term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            for (Map.Entry<Long, Float> posting : term.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private List<IndexedQuiz> loadChunk(Long afterId) {
+        List<Quiz> quizzes = quizRepository.findByIdGreaterThanOrderById(afterId, PageRequest.of(0, BUILD_CHUNK_SIZE));
+        List<Long> ids = quizzes.stream().map(Quiz::getId).toList();
+        Map<Long, List<String>> texts = ids.isEmpty() ? Map.of() : questionTexts(ids);
+
+        List<IndexedQuiz> chunk = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes) {
+            chunk.add(index(quiz, texts.getOrDefault(quiz.getId(), List.of())));
+        }
+        return chunk;
+    }
+
+    private Map<Long, List<String>> questionTexts(List<Long> quizIds) {
+        Map<Long, List<String>> texts = new HashMap<>();
+        for (QuestionRepository.QuestionText text : questionRepository.findTextsByQuizIdIn(quizIds)) {
+            texts.computeIfAbsent(text.getQuizId(), k -> new ArrayList<>()).add(text.getText());
+        }
+        return texts;
+    }
+
+    private static IndexedQuiz index(Quiz quiz, List<String> questionTexts) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, quiz.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, quiz.getDescription(), DESCRIPTION_WEIGHT);
+        if (quiz.getTechnology() != null) {
+            addTerms(terms, quiz.getTechnology().name(), TECHNOLOGY_WEIGHT);
+        }
+        for (String text : questionTexts) {
+            addTerms(terms, text, QUESTION_WEIGHT);
+        }
+
+        QuizSummaryDto summary = new QuizSummaryDto(quiz.getId(), quiz.getTitle(), quiz.getTechnology(),
+                quiz.getCreatedAt(), (long) questionTexts.size());
+        return new IndexedQuiz(summary, terms);
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    // Lower-cased, accent-free words of at least two characters
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // A load that started before the last change to its quiz is stale and dropped
+    private boolean isStale(Long id, long loadedAt) {
+        return changedAt.getOrDefault(id, 0L) > loadedAt;
+    }
+
+    private void put(IndexedQuiz quiz, long loadedAt) {
+        Long id = quiz.summary().getId();
+        writeLock.lock();
+        try {
+            if (isStale(id, loadedAt)) {
+                return;
+            }
+            IndexedQuiz previous = documents.put(id, quiz);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+            for (Map.Entry<String, Float> term : quiz.terms().entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new ConcurrentHashMap<>()).put(id, term.getValue());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void remove(Long id, long loadedAt) {
+        writeLock.lock();
+        try {
+            if (isStale(id, loadedAt)) {
+                return;
+            }
+            IndexedQuiz previous = documents.remove(id);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void removePostings(Long id, IndexedQuiz quiz) {
+        for (String term : quiz.terms().keySet()) {
+            postings.computeIfPresent(term, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -4,23 +4,40 @@ package com.qcmcreator.qcmapi.service;
 import com.qcmcreator.qcmapi.dto.OptionDto;
 import com.qcmcreator.qcmapi.dto.QuestionDto;
 import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.QuizSummaryDto;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.dto.request.QuestionPatchRequest;
+import com.qcmcreator.qcmapi.dto.request.QuizFilter;
+import com.qcmcreator.qcmapi.dto.response.CacheStatsResponse;
+import com.qcmcreator.qcmapi.dto.response.QuizPageResponse;
 import com.qcmcreator.qcmapi.model.*;
-import com.qcmcreator.qcmapi.repository.OptionRepository;
 import com.qcmcreator.qcmapi.repository.QuestionRepository;
 import com.qcmcreator.qcmapi.repository.QuizRepository;
 import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class QuizService {
     
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    
     @Autowired
     private QuizRepository quizRepository;
     
@@ -28,57 +45,94 @@ public class QuizService {
     private QuestionRepository questionRepository;
     
     @Autowired
-    private OptionRepository optionRepository;
+    private UserRepository userRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private QuizGraphLoader quizGraphLoader;
+    
+    @Autowired
+    private QuizCache quizCache;
+    
+    @Autowired
+    private StudentQuizCache studentQuizCache;
+    
+    @Autowired
+    private QuizSearchIndex quizSearchIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
     
-    public List<QuizDto> getAllQuizzes() {
-        List<Quiz> quizzes = quizRepository.findAllByOrderByCreatedAtDesc();
-        return quizzes.stream().map(this::convertToDto).collect(Collectors.toList());
+    // Same modules and features as the JSON mapper, binary output
+    private ObjectMapper cborMapper;
+    
+    @PostConstruct
+    void init() {
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+    
+    public List<QuizDto> getQuizzesOwnedBy(Long userId) {
+        return quizGraphLoader.loadAllByOwner(userId);
     }
     
     public QuizDto getQuizById(Long id) {
-        Optional<Quiz> quizOpt = quizRepository.findById(id);
-        return quizOpt.map(this::convertToDto).orElse(null);
+        CachedQuiz cached = getQuizPayload(id);
+        return cached != null ? cached.getQuiz() : null;
+    }
+    
+    public CachedQuiz getQuizPayload(Long id) {
+        return quizCache.get(id, key -> quizGraphLoader.loadById(key)
+                .map(quizDto -> CachedQuiz.of(quizDto, objectMapper, cborMapper))
+                .orElse(null));
+    }
+    
+    // Questions and options without correctness flags or direct answers
+    public StudentQuizDto getStudentQuiz(Long id) {
+        return studentQuizCache.get(id, key -> quizGraphLoader.loadStudentView(key).orElse(null));
+    }
+    
+    public CacheStatsResponse getCacheStats() {
+        return quizCache.stats();
+    }
+    
+    public QuizPageResponse getQuizPage(QuizFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        LocalDateTime createdAt = null;
+        Long id = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            createdAt = LocalDateTime.parse(position[0]);
+            id = Long.parseLong(position[1]);
+        }
+        // Fetch one extra row to know whether another page follows
+        List<QuizSummaryDto> items = quizRepository.findSummaries(filter, createdAt, id, pageSize + 1);
+        
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            QuizSummaryDto last = items.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        
+        return new QuizPageResponse(items, nextCursor);
+    }
+    
+    public List<QuizSummaryDto> searchQuizzes(String query, int limit) {
+        return quizSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
     
     @Transactional
     public Long createQuiz(QuizDto quizDto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         
-        Quiz quiz = new Quiz();
-        quiz.setTitle(quizDto.getTitle());
-        quiz.setDescription(quizDto.getDescription());
-        quiz.setTechnology(quizDto.getTechnology());
-        quiz.setUser(user);
+        Quiz quiz = newQuiz(quizDto, user);
         
+        // Questions and options are persisted through cascades in a single batched flush
         Quiz savedQuiz = quizRepository.save(quiz);
-        
-        if (quizDto.getQuestions() != null) {
-            for (QuestionDto questionDto : quizDto.getQuestions()) {
-                Question question = new Question();
-                question.setText(questionDto.getText());
-                question.setImageUrl(questionDto.getImageUrl());
-                question.setQuestionType(questionDto.getQuestionType());
-                question.setDirectAnswer(questionDto.getDirectAnswer());
-                question.setQuiz(savedQuiz);
-                
-                Question savedQuestion = questionRepository.save(question);
-                
-                // Only process options for multiple choice questions
-                if (questionDto.getQuestionType() == QuestionType.MULTIPLE_CHOICE && questionDto.getOptions() != null) {
-                    for (OptionDto optionDto : questionDto.getOptions()) {
-                        Option option = new Option();
-                        option.setText(optionDto.getText());
-                        option.setCorrect(optionDto.isCorrect());
-                        option.setQuestion(savedQuestion);
-                        
-                        optionRepository.save(option);
-                    }
-                }
-            }
-        }
+        eventPublisher.publishEvent(new QuizChangedEvent(savedQuiz.getId()));
         
         return savedQuiz.getId();
     }
@@ -98,36 +152,48 @@ public class QuizService {
             quiz.setDescription(quizDto.getDescription());
             quiz.setTechnology(quizDto.getTechnology());
             
-            // Delete existing questions and options
-            List<Question> existingQuestions = questionRepository.findByQuizOrderById(quiz);
-            questionRepository.deleteAll(existingQuestions);
+            // Only the rows that actually changed are inserted, updated or deleted
+            mergeQuestions(quiz, quizDto.getQuestions());
+            eventPublisher.publishEvent(new QuizChangedEvent(id));
             
-            // Create new questions and options
-            if (quizDto.getQuestions() != null) {
-                for (QuestionDto questionDto : quizDto.getQuestions()) {
-                    Question question = new Question();
-                    question.setText(questionDto.getText());
-                    question.setImageUrl(questionDto.getImageUrl());
-                    question.setQuestionType(questionDto.getQuestionType());
-                    question.setDirectAnswer(questionDto.getDirectAnswer());
-                    question.setQuiz(quiz);
-                    
-                    Question savedQuestion = questionRepository.save(question);
-                    
-                    // Only process options for multiple choice questions
-                    if (questionDto.getQuestionType() == QuestionType.MULTIPLE_CHOICE && questionDto.getOptions() != null) {
-                        for (OptionDto optionDto : questionDto.getOptions()) {
-                            Option option = new Option();
-                            option.setText(optionDto.getText());
-                            option.setCorrect(optionDto.isCorrect());
-                            option.setQuestion(savedQuestion);
-                            
-                            optionRepository.save(option);
-                        }
-                    }
-                }
+            return true;
+        }
+        return false;
+    }
+    
+    @Transactional
+    public boolean patchQuestion(Long quizId, Long questionId, QuestionPatchRequest patch, Long userId) {
+        Optional<Question> questionOpt = questionRepository.findById(questionId);
+        if (questionOpt.isPresent()) {
+            Question question = questionOpt.get();
+            Quiz quiz = question.getQuiz();
+            
+            // Check that the question belongs to this quiz and the user owns it
+            if (!quiz.getId().equals(quizId) || !quiz.getUser().getId().equals(userId)) {
+                return false;
             }
             
+            // Absent members stay unchanged; an explicit null removes the value (RFC 7396)
+            if (patch.getText() != null) {
+                question.setText(patch.getText().orElseThrow(() -> new IllegalArgumentException("text cannot be removed")));
+            }
+            if (patch.getImageUrl() != null) {
+                question.setImageUrl(patch.getImageUrl().orElse(null));
+            }
+            if (patch.getQuestionType() != null) {
+                question.setQuestionType(patch.getQuestionType()
+                        .orElseThrow(() -> new IllegalArgumentException("questionType cannot be removed")));
+            }
+            if (patch.getDirectAnswer() != null) {
+                question.setDirectAnswer(patch.getDirectAnswer().orElse(null));
+            }
+            if (patch.getOptions() != null) {
+                mergeOptions(question, patch.getOptions().orElse(new ArrayList<>()));
+            } else if (question.getQuestionType() != QuestionType.MULTIPLE_CHOICE) {
+                mergeOptions(question, null);
+            }
+            eventPublisher.publishEvent(new QuizChangedEvent(quizId));
+            
             return true;
         }
         return false;
@@ -145,52 +211,139 @@ public class QuizService {
             }
             
             quizRepository.deleteById(id);
+            eventPublisher.publishEvent(new QuizChangedEvent(id));
             return true;
         }
         return false;
     }
     
-    private QuizDto convertToDto(Quiz quiz) {
-        QuizDto quizDto = new QuizDto();
-        quizDto.setId(quiz.getId());
-        quizDto.setTitle(quiz.getTitle());
-        quizDto.setDescription(quiz.getDescription());
-        quizDto.setTechnology(quiz.getTechnology());
-        quizDto.setCreatedAt(quiz.getCreatedAt());
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    // Unsaved quiz graph built from the DTO; ids in the DTO are ignored
+    static Quiz newQuiz(QuizDto quizDto, User user) {
+        Quiz quiz = new Quiz();
+        quiz.setTitle(quizDto.getTitle());
+        quiz.setDescription(quizDto.getDescription());
+        quiz.setTechnology(quizDto.getTechnology());
+        quiz.setUser(user);
+        addQuestions(quiz, quizDto.getQuestions());
+        return quiz;
+    }
+    
+    private static void addQuestions(Quiz quiz, List<QuestionDto> questionDtos) {
+        if (questionDtos == null) {
+            return;
+        }
         
-        List<Question> questions = questionRepository.findByQuizOrderById(quiz);
-        List<QuestionDto> questionDtos = new ArrayList<>();
+        for (QuestionDto questionDto : questionDtos) {
+            quiz.getQuestions().add(newQuestion(quiz, questionDto, quiz.getQuestions().size()));
+        }
+    }
+    
+    static void mergeQuestions(Quiz quiz, List<QuestionDto> questionDtos) {
+        Map<Long, Question> unmatched = new HashMap<>();
+        for (Question question : quiz.getQuestions()) {
+            unmatched.put(question.getId(), question);
+        }
         
-        for (Question question : questions) {
-            QuestionDto questionDto = new QuestionDto();
-            questionDto.setId(question.getId());
-            questionDto.setText(question.getText());
-            questionDto.setImageUrl(question.getImageUrl());
-            questionDto.setQuestionType(question.getQuestionType());
-            questionDto.setDirectAnswer(question.getDirectAnswer());
-            
-            List<OptionDto> optionDtos = new ArrayList<>();
-            
-            // Only fetch options for multiple choice questions
-            if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
-                List<Option> options = optionRepository.findByQuestion(question);
-                
-                for (Option option : options) {
-                    OptionDto optionDto = new OptionDto();
-                    optionDto.setId(option.getId());
-                    optionDto.setText(option.getText());
-                    optionDto.setCorrect(option.isCorrect());
-                    
-                    optionDtos.add(optionDto);
+        // The request order becomes the new order; kept rows only get their position updated
+        List<Question> ordered = new ArrayList<>();
+        if (questionDtos != null) {
+            for (QuestionDto questionDto : questionDtos) {
+                Question question = questionDto.getId() != null ? unmatched.remove(questionDto.getId()) : null;
+                if (question == null) {
+                    ordered.add(newQuestion(quiz, questionDto, ordered.size()));
+                    continue;
                 }
+                
+                // Dirty checking only issues an UPDATE when a value really differs
+                question.setText(questionDto.getText());
+                question.setImageUrl(questionDto.getImageUrl());
+                question.setQuestionType(questionDto.getQuestionType());
+                question.setDirectAnswer(questionDto.getDirectAnswer());
+                question.setPosition(ordered.size());
+                mergeOptions(question, questionDto.getOptions());
+                ordered.add(question);
+            }
+        }
+        
+        // Orphan removal deletes questions (and their options) missing from the request
+        quiz.getQuestions().clear();
+        quiz.getQuestions().addAll(ordered);
+    }
+    
+    private static void mergeOptions(Question question, List<OptionDto> optionDtos) {
+        // Only multiple choice questions keep options
+        if (question.getQuestionType() != QuestionType.MULTIPLE_CHOICE || optionDtos == null) {
+            question.getOptions().clear();
+            return;
+        }
+        
+        Map<Long, Option> unmatched = new HashMap<>();
+        for (Option option : question.getOptions()) {
+            unmatched.put(option.getId(), option);
+        }
+        
+        List<Option> ordered = new ArrayList<>();
+        for (OptionDto optionDto : optionDtos) {
+            Option option = optionDto.getId() != null ? unmatched.remove(optionDto.getId()) : null;
+            if (option == null) {
+                ordered.add(newOption(question, optionDto, ordered.size()));
+                continue;
             }
             
-            questionDto.setOptions(optionDtos);
-            questionDtos.add(questionDto);
+            option.setText(optionDto.getText());
+            option.setCorrect(optionDto.isCorrect());
+            option.setPosition(ordered.size());
+            ordered.add(option);
         }
         
-        quizDto.setQuestions(questionDtos);
+        question.getOptions().clear();
+        question.getOptions().addAll(ordered);
+    }
+    
+    static Question newQuestion(Quiz quiz, QuestionDto questionDto, int position) {
+        Question question = new Question();
+        question.setText(questionDto.getText());
+        question.setImageUrl(questionDto.getImageUrl());
+        question.setQuestionType(questionDto.getQuestionType());
+        question.setDirectAnswer(questionDto.getDirectAnswer());
+        question.setPosition(position);
+        question.setQuiz(quiz);
+        
+        // Only process options for multiple choice questions
+        if (questionDto.getQuestionType() == QuestionType.MULTIPLE_CHOICE && questionDto.getOptions() != null) {
+            for (OptionDto optionDto : questionDto.getOptions()) {
+                question.getOptions().add(newOption(question, optionDto, question.getOptions().size()));
+            }
+        }
         
-        return quizDto;
+        return question;
+    }
+    
+    private static Option newOption(Question question, OptionDto optionDto, int position) {
+        Option option = new Option();
+        option.setText(optionDto.getText());
+        option.setCorrect(optionDto.isCorrect());
+        option.setPosition(position);
+        option.setQuestion(question);
+        return option;
     }
 }
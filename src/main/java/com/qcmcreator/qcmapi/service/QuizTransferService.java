@@ -0,0 +1,389 @@
+
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.response.QuizImportResponse;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.QuizRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams quiz banks in and out as NDJSON, one {@link QuizDto} per line.
+ * Both directions work in chunks and clear the persistence context between
+ * them, so memory stays flat regardless of the bank size.
+ */
+@Service
+public class QuizTransferService {
+
+    @Value("${quiz.transfer.export-chunk-size}")
+    private int exportChunkSize;
+
+    // Questions per import transaction; a larger quiz is saved in slices of this size
+    @Value("${quiz.transfer.import-chunk-questions}")
+    private int importChunkQuestions;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizGraphLoader quizGraphLoader;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every quiz of the given user to the stream in id order and returns
+     * how many were written.
+     */
+    @Transactional(readOnly = true)
+    public long exportTo(OutputStream out, Long userId) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long exported = 0;
+        List<Quiz> chunk = new ArrayList<>(exportChunkSize);
+        try (Stream<Quiz> quizzes = quizRepository.streamByUserIdOrderById(userId)) {
+            var iterator = quizzes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == exportChunkSize || !iterator.hasNext()) {
+                    exported += writeChunk(generator, chunk);
+                    chunk.clear();
+                    // Detach what the chunk loaded; the cursor itself stays open
+                    entityManager.clear();
+                }
+            }
+        }
+        generator.flush();
+        return exported;
+    }
+
+    private int writeChunk(JsonGenerator generator, List<Quiz> chunk) throws IOException {
+        List<QuizDto> quizDtos = quizGraphLoader.assemble(chunk);
+        for (QuizDto quizDto : quizDtos) {
+            objectMapper.writeValue(generator, quizDto);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        return quizDtos.size();
+    }
+
+    /**
+     * Reads quizzes token by token and saves them, owned by the given user, in
+     * transactions of roughly {@code importChunkQuestions} questions. Each
+     * quiz and question is validated as it is read, and a quiz with more
+     * questions than a chunk is saved in slices, so only one chunk of
+     * questions is ever in memory. The import stops at the first invalid quiz
+     * or the first quiz the database rejects: quizzes before it stay
+     * imported, a partly saved quiz is removed again, and the response
+     * reports the counts and the line of that quiz.
+     */
+    public QuizImportResponse importFrom(InputStream in, Long userId) throws IOException {
+        Importer importer = new Importer(userId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            while (parser.nextToken() != null) {
+                importer.readQuiz(parser);
+            }
+            importer.saveChunk();
+        } catch (JsonProcessingException e) {
+            long line = e.getLocation() != null ? e.getLocation().getLineNr() : importer.line;
+            return importer.fail("Invalid quiz at line " + line + ": " + e.getOriginalMessage());
+        } catch (ImportFailure e) {
+            return importer.fail(e.getMessage());
+        }
+        return new QuizImportResponse(importer.imported, importer.importedQuestions, null);
+    }
+
+    // Problems with a quiz or question, or null if it can be saved
+    static String validate(QuizDto quiz) {
+        if (quiz.getTitle() == null || quiz.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (quiz.getTitle().length() > 255) {
+            return "title is longer than 255 characters";
+        }
+        if (quiz.getDescription() != null && quiz.getDescription().length() > 1000) {
+            return "description is longer than 1000 characters";
+        }
+        return null;
+    }
+
+    static String validate(QuestionDto question) {
+        if (question == null) {
+            return "question is null";
+        }
+        if (question.getText() == null || question.getText().isBlank()) {
+            return "question text is required";
+        }
+        if (question.getText().length() > 500) {
+            return "question text is longer than 500 characters";
+        }
+        if (question.getImageUrl() != null && question.getImageUrl().length() > 1000) {
+            return "image URL is longer than 1000 characters";
+        }
+        if (question.getQuestionType() == null) {
+            return "question type is required";
+        }
+        if (question.getDirectAnswer() != null && question.getDirectAnswer().length() > 500) {
+            return "direct answer is longer than 500 characters";
+        }
+        if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE && question.getOptions() != null) {
+            for (OptionDto option : question.getOptions()) {
+                if (option == null || option.getText() == null || option.getText().isBlank()) {
+                    return "option text is required";
+                }
+                if (option.getText().length() > 500) {
+                    return "option text is longer than 500 characters";
+                }
+            }
+        }
+        return null;
+    }
+
+    // A whole quiz, or one slice of the questions of a quiz too large for a single chunk
+    private static final class Part {
+        final QuizDto quiz;
+        final long line;
+        // Position of the slice's first question within the quiz
+        final int position;
+        // Whether this is the quiz's last slice, or the whole quiz
+        final boolean last;
+        // Set once the quiz is saved; given for every slice after the first
+        Long quizId;
+
+        Part(QuizDto quiz, long line, int position, boolean last, Long quizId) {
+            this.quiz = quiz;
+            this.line = line;
+            this.position = position;
+            this.last = last;
+            this.quizId = quizId;
+        }
+    }
+
+    private static final class ImportFailure extends RuntimeException {
+        ImportFailure(String message) {
+            super(message);
+        }
+    }
+
+    private final class Importer {
+        private final Long userId;
+        private final List<Part> chunk = new ArrayList<>();
+        private int chunkQuestions;
+        long imported;
+        long importedQuestions;
+        // A quiz with slices saved but not its last one, removed again if the import fails
+        private Long partialQuizId;
+        private int partialQuestions;
+
+        // The quiz being read
+        long line;
+        private ObjectNode header;
+        private QuizDto quiz;
+        private List<QuestionDto> questions;
+        private int savedQuestions;
+        private Long quizId;
+
+        Importer(Long userId) {
+            this.userId = userId;
+        }
+
+        void readQuiz(JsonParser parser) throws IOException {
+            line = parser.getTokenLocation().getLineNr();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new ImportFailure("Invalid quiz at line " + line + ": expected an object");
+            }
+            header = objectMapper.createObjectNode();
+            quiz = null;
+            questions = new ArrayList<>();
+            savedQuestions = 0;
+            quizId = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("questions".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        long questionLine = parser.getTokenLocation().getLineNr();
+                        QuestionDto question = objectMapper.readValue(parser, QuestionDto.class);
+                        check(validate(question), questionLine);
+                        questions.add(question);
+                        if (++chunkQuestions >= importChunkQuestions) {
+                            saveSlice();
+                        }
+                    }
+                } else if (quiz != null) {
+                    throw new ImportFailure("Invalid quiz at line " + line + ": with more than " + importChunkQuestions
+                            + " questions, its other fields must come before the questions");
+                } else {
+                    header.set(field, objectMapper.readTree(parser));
+                }
+            }
+
+            chunk.add(new Part(quiz(), line, savedQuestions, true, quizId));
+            questions = null;
+            // Chunks are sized by questions; the quiz count only bounds a run of quizzes without any
+            if (chunkQuestions >= importChunkQuestions || chunk.size() >= importChunkQuestions) {
+                saveChunk();
+            }
+        }
+
+        // Saves the questions read so far along with the chunk, keeping the quiz open for more
+        private void saveSlice() {
+            Part slice = new Part(quiz(), line, savedQuestions, false, quizId);
+            chunk.add(slice);
+            saveChunk();
+            quizId = slice.quizId;
+            savedQuestions += questions.size();
+            questions = new ArrayList<>();
+        }
+
+        // The header read so far with the questions of the current slice
+        private QuizDto quiz() {
+            if (quiz == null) {
+                try {
+                    quiz = objectMapper.treeToValue(header, QuizDto.class);
+                } catch (JsonProcessingException e) {
+                    throw new ImportFailure("Invalid quiz at line " + line + ": " + e.getOriginalMessage());
+                }
+                check(validate(quiz), line);
+                header = null;
+            }
+            QuizDto slice = new QuizDto();
+            slice.setTitle(quiz.getTitle());
+            slice.setDescription(quiz.getDescription());
+            slice.setTechnology(quiz.getTechnology());
+            slice.setQuestions(questions);
+            return slice;
+        }
+
+        void saveChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Part> parts = List.copyOf(chunk);
+            chunk.clear();
+            chunkQuestions = 0;
+            save(parts);
+        }
+
+        /*
+         * Saves the parts in one transaction. If that fails, saves them one
+         * per transaction to find the part at fault, keeping those before it.
+         */
+        private void save(List<Part> parts) {
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(status -> saveParts(parts));
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                if (parts.size() == 1) {
+                    throw new ImportFailure("Could not save quiz at line " + parts.get(0).line + ": "
+                            + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+                for (Part part : parts) {
+                    save(List.of(part));
+                }
+                return;
+            }
+
+            for (int i = 0; i < parts.size(); i++) {
+                Part part = parts.get(i);
+                part.quizId = ids.get(i);
+                importedQuestions += part.quiz.getQuestions().size();
+                if (part.last) {
+                    imported++;
+                    partialQuizId = null;
+                    partialQuestions = 0;
+                } else {
+                    partialQuizId = part.quizId;
+                    partialQuestions += part.quiz.getQuestions().size();
+                }
+            }
+        }
+
+        private List<Long> saveParts(List<Part> parts) {
+            User user = entityManager.getReference(User.class, userId);
+            List<Long> ids = new ArrayList<>(parts.size());
+            for (Part part : parts) {
+                Long id = part.quizId;
+                if (id == null) {
+                    // Identity ids are assigned on insert, so this does not wait for the flush
+                    id = quizRepository.save(QuizService.newQuiz(part.quiz, user)).getId();
+                } else {
+                    Quiz target = entityManager.getReference(Quiz.class, id);
+                    int position = part.position;
+                    for (QuestionDto questionDto : part.quiz.getQuestions()) {
+                        entityManager.persist(QuizService.newQuestion(target, questionDto, position++));
+                    }
+                }
+                ids.add(id);
+            }
+            entityManager.flush();
+            // One event for the chunk, so listeners reload its quizzes in bulk
+            eventPublisher.publishEvent(new QuizChangedEvent(ids.stream().distinct().toList()));
+            entityManager.clear();
+            return ids;
+        }
+
+        // Keeps what was complete before the failure and drops a partly saved quiz
+        QuizImportResponse fail(String error) {
+            String message = error;
+            try {
+                saveChunk();
+            } catch (ImportFailure e) {
+                message = e.getMessage();
+            }
+            if (partialQuizId != null) {
+                quizService.deleteQuiz(partialQuizId, userId);
+                importedQuestions -= partialQuestions;
+            }
+            return new QuizImportResponse(imported, importedQuestions, message);
+        }
+
+        private void check(String problem, long at) {
+            if (problem != null) {
+                throw new ImportFailure("Invalid quiz at line " + at + ": " + problem);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Student views of quizzes by id. They are loaded from their own projection
+ * queries rather than derived from {@link QuizCache}, so a quiz that is only
+ * ever taken never has its answer key assembled. Entries are dropped after a
+ * change to the quiz commits.
+ */
+@Component
+public class StudentQuizCache {
+
+    @Value("${quiz.student-cache.max-size}")
+    private long maxSize;
+
+    @Value("${quiz.student-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, StudentQuizDto> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quiz.student");
+    }
+
+    // The loader may return null, in which case nothing is cached
+    public StudentQuizDto get(Long id, Function<Long, StudentQuizDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        cache.invalidateAll(event.getQuizIds());
+    }
+}
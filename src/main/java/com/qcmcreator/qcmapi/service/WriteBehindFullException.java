@@ -0,0 +1,9 @@
+
+package com.qcmcreator.qcmapi.service;
+
+// The write-behind queue is at capacity; callers should retry later
+public class WriteBehindFullException extends RuntimeException {
+    public WriteBehindFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+-- Initial schema. Kept to SQL understood by both H2 and PostgreSQL.
+
+create table roles (
+    id integer generated by default as identity primary key,
+    name varchar(20)
+);
+
+create table users (
+    id bigint generated by default as identity primary key,
+    username varchar(50) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table user_roles (
+    user_id bigint not null references users (id),
+    role_id integer not null references roles (id),
+    primary key (user_id, role_id)
+);
+
+create table quizzes (
+    id bigint generated by default as identity primary key,
+    title varchar(255) not null,
+    description varchar(1000),
+    technology varchar(255),
+    created_at timestamp(6),
+    user_id bigint references users (id)
+);
+
+create index idx_quizzes_technology_created_at on quizzes (technology, created_at, id);
+create index idx_quizzes_user_created_at on quizzes (user_id, created_at, id);
+create index idx_quizzes_created_at on quizzes (created_at, id);
+
+-- Pooled sequences: Hibernate hands out allocationSize ids per call
+create sequence question_seq start with 1 increment by 50;
+create sequence option_seq start with 1 increment by 50;
+
+create table questions (
+    id bigint primary key,
+    text varchar(500) not null,
+    image_url varchar(1000),
+    question_type varchar(255) not null,
+    direct_answer varchar(500),
+    quiz_id bigint references quizzes (id)
+);
+
+create index idx_questions_quiz_type on questions (quiz_id, question_type);
+
+create table options (
+    id bigint primary key,
+    text varchar(500) not null,
+    is_correct boolean not null,
+    question_id bigint references questions (id)
+);
+
+create index idx_options_question_id on options (question_id);
+
+-- Attempts reference quizzes and users by plain id so they outlive quiz deletion
+create sequence attempt_seq start with 1 increment by 50;
+create sequence attempt_answer_seq start with 1 increment by 50;
+
+create table quiz_attempts (
+    id bigint primary key,
+    quiz_id bigint not null,
+    user_id bigint not null,
+    quiz_version varchar(64) not null,
+    status varchar(20) not null,
+    score integer not null,
+    max_score integer not null,
+    started_at timestamp(6) not null,
+    finished_at timestamp(6)
+);
+
+create index idx_quiz_attempts_user_started_at on quiz_attempts (user_id, started_at);
+create index idx_quiz_attempts_quiz_id on quiz_attempts (quiz_id);
+
+create table attempt_answers (
+    id bigint primary key,
+    attempt_id bigint not null,
+    question_id bigint not null,
+    selected_options varchar(1000),
+    direct_answer varchar(500),
+    correct boolean not null,
+    answered_at timestamp(6) not null
+);
+
+create index idx_attempt_answers_attempt_id on attempt_answers (attempt_id, id);
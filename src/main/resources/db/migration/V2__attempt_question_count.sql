@@ -0,0 +1,4 @@
+-- Number of questions sampled for an attempt
+alter table quiz_attempts add column question_count integer default 0 not null;
+
+update quiz_attempts set question_count = max_score;
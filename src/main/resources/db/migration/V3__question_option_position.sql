@@ -0,0 +1,11 @@
+-- Explicit order of questions within a quiz and options within a question
+alter table questions add column position integer default 0 not null;
+alter table options add column position integer default 0 not null;
+
+-- Existing rows keep the order they were shown in, which was by id
+update questions set position = (
+    select count(*) from questions earlier where earlier.quiz_id = questions.quiz_id and earlier.id < questions.id);
+update options set position = (
+    select count(*) from options earlier where earlier.question_id = options.question_id and earlier.id < options.id);
+
+create index idx_questions_quiz_position on questions (quiz_id, position);
@@ -0,0 +1,3 @@
+-- Roles are looked up by name; ADMIN guards batch registration and cache statistics
+insert into roles (name) select 'USER' where not exists (select 1 from roles where name = 'USER');
+insert into roles (name) select 'ADMIN' where not exists (select 1 from roles where name = 'ADMIN');
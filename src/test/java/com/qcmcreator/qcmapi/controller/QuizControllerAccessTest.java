@@ -0,0 +1,128 @@
+package com.qcmcreator.qcmapi.controller;
+
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.security.TokenUtils;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import com.qcmcreator.qcmapi.service.QuizService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Answer keys are only ever sent to the quiz's owner
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:quiz-access;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class QuizControllerAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenUtils tokenUtils;
+
+    private String ownerBearer;
+    private String otherBearer;
+    private Long quizId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = saveUser("owner");
+        User other = saveUser("other");
+        ownerBearer = bearer(owner);
+        otherBearer = bearer(other);
+        quizId = quizService.createQuiz(new SyntheticQuizGenerator(3).quiz(10, 0.5), owner.getId());
+    }
+
+    @Test
+    void ownerSeesTheAnswers() throws Exception {
+        mockMvc.perform(get("/api/quizzes/{id}", quizId).header(HttpHeaders.AUTHORIZATION, ownerBearer))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"correct\"")))
+                .andExpect(content().string(containsString("\"directAnswer\"")));
+    }
+
+    @Test
+    void nonOwnerIsRefusedTheAuthoringView() throws Exception {
+        // Warm the cache as the owner first, so the check cannot depend on a cold load
+        mockMvc.perform(get("/api/quizzes/{id}", quizId).header(HttpHeaders.AUTHORIZATION, ownerBearer))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/quizzes/{id}", quizId).header(HttpHeaders.AUTHORIZATION, otherBearer))
+                .andExpect(status().isForbidden())
+                .andExpect(content().string(not(containsString("\"correct\""))))
+                .andExpect(content().string(not(containsString("\"directAnswer\""))));
+    }
+
+    @Test
+    void nonOwnerGetsTheStudentViewWithoutAnswers() throws Exception {
+        mockMvc.perform(get("/api/quizzes/{id}/student", quizId).header(HttpHeaders.AUTHORIZATION, otherBearer))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("\"correct\""))))
+                .andExpect(content().string(not(containsString("\"directAnswer\""))));
+    }
+
+    @Test
+    void listingAndExportOnlyContainTheCallersQuizzes() throws Exception {
+        mockMvc.perform(get("/api/quizzes").header(HttpHeaders.AUTHORIZATION, otherBearer))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        assertThat(export(otherBearer)).isEmpty();
+        assertThat(export(ownerBearer)).contains("\"correct\"").hasLineCount(1);
+    }
+
+    @Test
+    void cacheStatsAreForAdminsOnly() throws Exception {
+        mockMvc.perform(get("/api/quizzes/cache-stats").header(HttpHeaders.AUTHORIZATION, ownerBearer))
+                .andExpect(status().isForbidden());
+
+        User admin = saveUser("admin");
+        String adminBearer = "Bearer " + tokenUtils.generateToken(admin.getUsername(), admin.getId(), List.of("USER", "ADMIN"));
+        mockMvc.perform(get("/api/quizzes/cache-stats").header(HttpHeaders.AUTHORIZATION, adminBearer))
+                .andExpect(status().isOk());
+    }
+
+    private String export(String bearer) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/quizzes/export").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private User saveUser(String prefix) {
+        User user = new User();
+        user.setUsername(prefix + "-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("{noop}secret");
+        return userRepository.save(user);
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + tokenUtils.generateToken(user.getUsername(), user.getId(), List.of("USER"));
+    }
+}
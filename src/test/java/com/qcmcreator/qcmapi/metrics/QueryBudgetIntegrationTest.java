@@ -0,0 +1,122 @@
+package com.qcmcreator.qcmapi.metrics;
+
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.repository.UserRepository;
+import com.qcmcreator.qcmapi.security.TokenUtils;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import com.qcmcreator.qcmapi.service.QuizService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs with fail-on-violation, so every request below is also held to its handler's @QueryBudget
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "qcm.query-tracker.fail-on-violation=true"
+})
+@AutoConfigureMockMvc
+class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenUtils tokenUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("budget-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("{noop}secret");
+        userId = userRepository.save(user).getId();
+        bearer = "Bearer " + tokenUtils.generateToken(user.getUsername(), userId, List.of("USER"));
+    }
+
+    @Test
+    void quizReadIsTwoStatementsColdAndNoneWarm() throws Exception {
+        Long quizId = quizService.createQuiz(new SyntheticQuizGenerator(7).quiz(40, 0.2), userId);
+
+        try (QueryScope scope = QueryTracker.open()) {
+            mockMvc.perform(get("/api/quizzes/{id}", quizId).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk());
+            scope.assertStatementsAtMost(2);
+            scope.assertNoRepeatedStatements(1);
+        }
+
+        try (QueryScope scope = QueryTracker.open()) {
+            mockMvc.perform(get("/api/quizzes/{id}", quizId).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk());
+            assertThat(scope.getStatements()).isZero();
+        }
+    }
+
+    @Test
+    void studentViewDoesNotGrowWithQuestions() throws Exception {
+        Long quizId = quizService.createQuiz(new SyntheticQuizGenerator(11).quiz(120, 0.2), userId);
+
+        try (QueryScope scope = QueryTracker.open()) {
+            mockMvc.perform(get("/api/quizzes/{id}/student", quizId).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk());
+            scope.assertStatementsAtMost(3);
+            scope.assertNoRepeatedStatements(1);
+        }
+    }
+
+    @Test
+    void listingAllQuizzesHasNoNPlusOne() throws Exception {
+        SyntheticQuizGenerator generator = new SyntheticQuizGenerator(13);
+        for (int i = 0; i < 10; i++) {
+            quizService.createQuiz(generator.quiz(8, 0.2), userId);
+        }
+
+        try (QueryScope scope = QueryTracker.open()) {
+            mockMvc.perform(get("/api/quizzes").header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk());
+            scope.assertStatementsAtMost(2);
+            scope.assertNoRepeatedStatements(1);
+        }
+    }
+
+    @Test
+    void scopeTellsNPlusOneFromDuplicates() {
+        try (QueryScope scope = QueryTracker.open()) {
+            String sql = "select count(*) from quizzes where id = ?";
+            for (long id = 1; id <= 3; id++) {
+                jdbcTemplate.queryForObject(sql, Long.class, id);
+            }
+            jdbcTemplate.queryForObject(sql, Long.class, 1L);
+
+            assertThat(scope.getStatements()).isEqualTo(4);
+            assertThat(scope.repeatedStatements(1)).containsValue(3);
+            assertThat(scope.duplicateStatements()).containsValue(1);
+            assertThatThrownBy(() -> scope.assertNoRepeatedStatements(2))
+                    .isInstanceOf(QueryBudgetExceededException.class);
+        }
+    }
+}
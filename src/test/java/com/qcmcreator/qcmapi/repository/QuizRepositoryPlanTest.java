@@ -0,0 +1,107 @@
+package com.qcmcreator.qcmapi.repository;
+
+import com.qcmcreator.qcmapi.dto.request.QuizFilter;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Technology;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Captures the SQL Hibernate renders for each listing variant and checks H2's plan for it
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.qcmcreator.qcmapi.repository.QuizRepositoryPlanTest$RecordingInspector")
+class QuizRepositoryPlanTest {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private static final LocalDateTime CURSOR_CREATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final Long CURSOR_ID = 100L;
+
+    @BeforeEach
+    void setUp() {
+        RecordingInspector.statements.clear();
+    }
+
+    @Test
+    void cursorIsARowValueComparison() {
+        String sql = listingSql(new QuizFilter(null, null, null), true);
+
+        assertThat(sql.replace(" ", "").toLowerCase()).containsPattern("\\(\\w+\\.created_at,\\w+\\.id\\)<\\(\\?,\\?\\)");
+        assertThat(sql).doesNotContainIgnoringCase(" or ");
+    }
+
+    @Test
+    void technologyFilterUsesTechnologyIndex() throws SQLException {
+        String plan = explain(listingSql(new QuizFilter(Technology.SPRING, null, null), true));
+
+        assertThat(plan).containsIgnoringCase("IDX_QUIZZES_TECHNOLOGY_CREATED_AT");
+        assertThat(plan).doesNotContainIgnoringCase("QUIZZES.tableScan");
+    }
+
+    @Test
+    void ownerFilterAvoidsTableScan() throws SQLException {
+        String plan = explain(listingSql(new QuizFilter(null, 1L, null), true));
+
+        assertThat(plan).doesNotContainIgnoringCase("QUIZZES.tableScan");
+    }
+
+    @Test
+    void questionTypeFilterUsesQuestionTypeIndex() throws SQLException {
+        String plan = explain(listingSql(new QuizFilter(Technology.ANGULAR, null, QuestionType.DIRECT_ANSWER), false));
+
+        assertThat(plan).containsIgnoringCase("IDX_QUESTIONS_QUIZ_TYPE");
+        assertThat(plan).containsIgnoringCase("IDX_QUIZZES_TECHNOLOGY_CREATED_AT");
+    }
+
+    private String listingSql(QuizFilter filter, boolean withCursor) {
+        quizRepository.findSummaries(filter, withCursor ? CURSOR_CREATED_AT : null, withCursor ? CURSOR_ID : null, 20);
+        List<String> statements = RecordingInspector.statements;
+        assertThat(statements).isNotEmpty();
+        return statements.get(statements.size() - 1);
+    }
+
+    // The plan does not depend on the values, so every parameter is bound to null
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
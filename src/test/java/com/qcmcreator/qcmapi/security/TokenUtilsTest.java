@@ -0,0 +1,54 @@
+package com.qcmcreator.qcmapi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenUtilsTest {
+
+    private static final String SECRET = "a".repeat(TokenUtils.MIN_SECRET_BYTES);
+
+    @Test
+    void generatedTokenParsesBackToItsClaims() {
+        TokenUtils tokenUtils = tokenUtils(SECRET);
+
+        String token = tokenUtils.generateToken("alice", 42L, List.of("USER", "ADMIN"));
+        Optional<TokenClaims> claims = tokenUtils.parseToken(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getUsername()).isEqualTo("alice");
+        assertThat(claims.get().getUserId()).isEqualTo(42L);
+        assertThat(claims.get().getRoles()).containsExactly("USER", "ADMIN");
+        assertThat(claims.get().isExpired()).isFalse();
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        String token = tokenUtils("b".repeat(TokenUtils.MIN_SECRET_BYTES)).generateToken("alice", 42L, List.of("USER"));
+
+        assertThat(tokenUtils(SECRET).parseToken(token)).isEmpty();
+    }
+
+    @Test
+    void shortSecretIsRejectedAtStartup() {
+        assertThatThrownBy(() -> tokenUtils("c".repeat(TokenUtils.MIN_SECRET_BYTES - 1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.secret");
+    }
+
+    private static TokenUtils tokenUtils(String secret) {
+        TokenUtils tokenUtils = new TokenUtils();
+        ReflectionTestUtils.setField(tokenUtils, "secret", secret);
+        ReflectionTestUtils.setField(tokenUtils, "expirationMs", 60_000);
+        ReflectionTestUtils.setField(tokenUtils, "claimsCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(tokenUtils, "meterRegistry", new SimpleMeterRegistry());
+        tokenUtils.init();
+        return tokenUtils;
+    }
+}
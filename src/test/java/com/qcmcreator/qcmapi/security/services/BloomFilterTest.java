@@ -0,0 +1,73 @@
+package com.qcmcreator.qcmapi.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void everyValuePutIsFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.add("user" + i + "@example.com");
+        }
+        values.add("");
+        values.add("Élodie");
+
+        values.forEach(filter::put);
+
+        assertThat(values).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void concurrentPutsAreAllFound() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(executor.submit(() -> {
+                    List<String> put = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        String value = UUID.randomUUID().toString();
+                        filter.put(value);
+                        put.add(value);
+                    }
+                    return put;
+                }));
+            }
+            for (Future<List<String>> writer : writers) {
+                assertThat(writer.get()).allMatch(filter::mightContain);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("present" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 1% configured; allow for the variance of one sample
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
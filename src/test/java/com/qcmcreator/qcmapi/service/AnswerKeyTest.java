@@ -0,0 +1,100 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnswerKeyTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+    private static final ObjectMapper CBOR = JSON.copyWith(new CBORFactory());
+
+    // Ids deliberately out of order: the key sorts them for binary search
+    private final AnswerKey key = AnswerKey.of(CachedQuiz.of(quiz(
+            multipleChoice(30L, option(303L, false), option(301L, true), option(302L, true)),
+            multipleChoice(10L, option(101L, false), option(102L, true)),
+            directAnswer(20L, "  Élan   Vital ")
+    ), JSON, CBOR));
+
+    @Test
+    void multipleChoiceNeedsExactlyTheCorrectOptions() {
+        assertThat(key.isCorrect(30L, List.of(302L, 301L), null)).isTrue();
+        assertThat(key.isCorrect(30L, List.of(301L), null)).isFalse();
+        assertThat(key.isCorrect(30L, List.of(301L, 302L, 303L), null)).isFalse();
+        assertThat(key.isCorrect(10L, List.of(102L), null)).isTrue();
+        assertThat(key.isCorrect(10L, List.of(101L), null)).isFalse();
+    }
+
+    @Test
+    void multipleChoiceRejectsMissingOrForeignSelections() {
+        assertThat(key.isCorrect(10L, null, null)).isFalse();
+        assertThat(key.isCorrect(10L, List.of(), null)).isFalse();
+        // An option of another question
+        assertThat(key.isCorrect(10L, List.of(102L, 301L), null)).isFalse();
+    }
+
+    @Test
+    void directAnswerIgnoresCaseAccentsAndWhitespace() {
+        assertThat(key.isCorrect(20L, null, "elan vital")).isTrue();
+        assertThat(key.isCorrect(20L, null, "ÉLAN\tVITAL")).isTrue();
+        assertThat(key.isCorrect(20L, null, "elan")).isFalse();
+        assertThat(key.isCorrect(20L, null, null)).isFalse();
+    }
+
+    @Test
+    void unknownQuestionIsRejected() {
+        assertThat(key.hasQuestion(20L)).isTrue();
+        assertThat(key.hasQuestion(40L)).isFalse();
+        assertThatThrownBy(() -> key.isCorrect(40L, List.of(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void maxScoreIsOnePointPerQuestion() {
+        assertThat(key.getMaxScore()).isEqualTo(3);
+        assertThat(key.getQuizId()).isEqualTo(1L);
+    }
+
+    private static QuizDto quiz(QuestionDto... questions) {
+        QuizDto quiz = new QuizDto();
+        quiz.setId(1L);
+        quiz.setTitle("Grading");
+        quiz.setQuestions(new ArrayList<>(List.of(questions)));
+        return quiz;
+    }
+
+    private static QuestionDto multipleChoice(Long id, OptionDto... options) {
+        QuestionDto question = new QuestionDto();
+        question.setId(id);
+        question.setText("Question " + id);
+        question.setOptions(new ArrayList<>(List.of(options)));
+        return question;
+    }
+
+    private static QuestionDto directAnswer(Long id, String answer) {
+        QuestionDto question = new QuestionDto();
+        question.setId(id);
+        question.setText("Question " + id);
+        question.setQuestionType(QuestionType.DIRECT_ANSWER);
+        question.setDirectAnswer(answer);
+        return question;
+    }
+
+    private static OptionDto option(Long id, boolean correct) {
+        OptionDto option = new OptionDto();
+        option.setId(id);
+        option.setText("Option " + id);
+        option.setCorrect(correct);
+        return option;
+    }
+}
@@ -0,0 +1,109 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Crash recovery of the journal, with a journal reopened on the same directory standing in for a restart
+class AttemptJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private AttemptJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void replaysEntriesAboveTheCheckpoint() throws IOException {
+        assertThat(journal.recover()).isEmpty();
+        journal.append(List.of(finished(1), finished(2), finished(3)), entry -> { });
+        journal.checkpoint(2);
+
+        List<AttemptJournal.Entry> pending = restart();
+
+        assertThat(pending).extracting(AttemptJournal.Entry::seq).containsExactly(3L);
+        assertThat(pending.get(0).write()).isEqualTo(finished(3));
+    }
+
+    @Test
+    void checkpointOfTheLastEntryEmptiesTheJournal() throws IOException {
+        journal.recover();
+        journal.append(List.of(finished(1), finished(2)), entry -> { });
+        journal.checkpoint(2);
+
+        assertThat(Files.size(dir.resolve("attempts.journal"))).isZero();
+        assertThat(restart()).isEmpty();
+    }
+
+    @Test
+    void tornLastLineIsSkippedAndCutOff() throws IOException {
+        journal.recover();
+        journal.append(List.of(finished(1)), entry -> { });
+        // A crash in the middle of the next append
+        Files.writeString(dir.resolve("attempts.journal"), "{\"seq\":2,\"write\":{\"type\":\"fin",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(restart()).extracting(AttemptJournal.Entry::seq).containsExactly(1L);
+
+        // The next append starts on a line of its own, so both entries survive another restart
+        List<AttemptJournal.Entry> appended = new ArrayList<>();
+        journal.append(List.of(finished(2)), appended::add);
+        assertThat(appended).extracting(AttemptJournal.Entry::seq).containsExactly(2L);
+
+        assertThat(restart()).extracting(AttemptJournal.Entry::seq).containsExactly(1L, 2L);
+        assertThat(Files.readAllLines(dir.resolve("attempts.journal"))).hasSize(2);
+    }
+
+    @Test
+    void sequencesContinueAfterRecovery() throws IOException {
+        journal.recover();
+        journal.append(List.of(finished(1), finished(2)), entry -> { });
+
+        restart();
+        long seq = journal.append(List.of(finished(3)), entry -> { });
+
+        assertThat(seq).isEqualTo(3);
+    }
+
+    private List<AttemptJournal.Entry> restart() throws IOException {
+        journal.close();
+        journal = open();
+        return journal.recover();
+    }
+
+    private AttemptJournal open() throws IOException {
+        AttemptJournal opened = new AttemptJournal();
+        ReflectionTestUtils.setField(opened, "dir", dir.toString());
+        ReflectionTestUtils.setField(opened, "fsync", true);
+        ReflectionTestUtils.setField(opened, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        opened.open();
+        return opened;
+    }
+
+    private static AttemptWrite finished(long attemptId) {
+        return new AttemptWrite.Finished(attemptId, 1, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+}
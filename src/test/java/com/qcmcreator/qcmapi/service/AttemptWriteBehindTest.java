@@ -0,0 +1,85 @@
+package com.qcmcreator.qcmapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Flushes are triggered by the test; the interval keeps the flusher thread out of the way
+@DataJpaTest(properties = "attempt.write-behind.flush-interval-ms=600000")
+@Import({AttemptWriteBehind.class, AttemptJournal.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttemptWriteBehindTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("attempt.journal.dir", journalDir::toString);
+    }
+
+    @Autowired
+    private AttemptWriteBehind writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void rowTheDatabaseRejectsIsDeadLetteredAndTheRestIsWritten() throws IOException {
+        List<AttemptJournal.Entry> done = new ArrayList<>();
+        writeBehind.onDone(done::addAll);
+
+        writeBehind.submit(List.of(
+                started(1001L, 7L),
+                // quiz_id is not null: rejected by the database on every try
+                started(1002L, null),
+                new AttemptWrite.Finished(1001L, 3, NOW)));
+        writeBehind.flush();
+
+        assertThat(jdbcTemplate.queryForList("select id, status, score from quiz_attempts where id in (1001, 1002)"))
+                .singleElement()
+                .satisfies(row -> {
+                    assertThat(row.get("ID")).isEqualTo(1001L);
+                    assertThat(row.get("STATUS")).isEqualTo("FINISHED");
+                    assertThat(row.get("SCORE")).isEqualTo(3);
+                });
+
+        List<String> deadLetters = Files.readAllLines(journalDir.resolve("attempts.dead-letter"));
+        assertThat(deadLetters).singleElement().asString().contains("\"attemptId\":1002");
+        assertThat(meterRegistry.counter("qcm.attempt.write.dead-letter").count()).isEqualTo(1);
+
+        // Dead-lettered entries count as done, so the journal is checkpointed past them
+        assertThat(done).hasSize(3);
+        assertThat(Files.size(journalDir.resolve("attempts.journal"))).isZero();
+    }
+
+    private static AttemptWrite started(Long attemptId, Long quizId) {
+        return new AttemptWrite.Started(attemptId, quizId, 1L, "v1", 3, 3, NOW);
+    }
+}
@@ -0,0 +1,92 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.dto.StudentOptionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuestionDto;
+import com.qcmcreator.qcmapi.dto.StudentQuizDto;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deliveries are rebuilt from their seed when an attempt is resumed or graded, so they must be reproducible
+class CompactQuizTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+    private static final ObjectMapper CBOR = JSON.copyWith(new CBORFactory());
+
+    private final QuizDto source = withIds(new SyntheticQuizGenerator(5).quiz(30, 0.2));
+    private final CompactQuiz quiz = CompactQuiz.of(CachedQuiz.of(source, JSON, CBOR));
+
+    @Test
+    void sameSeedDeliversTheSameQuiz() {
+        assertThat(quiz.deliver(42, 10)).isEqualTo(quiz.deliver(42, 10));
+        assertThat(quiz.deliver(42, 0)).isEqualTo(quiz.deliver(42, 0));
+
+        // A second instance built from the same version shuffles the same way
+        CompactQuiz rebuilt = CompactQuiz.of(CachedQuiz.of(source, JSON, CBOR));
+        assertThat(rebuilt.deliver(42, 10)).isEqualTo(quiz.deliver(42, 10));
+    }
+
+    @Test
+    void otherSeedsShuffleDifferently() {
+        List<Long> order = questionIds(quiz.deliver(1, 0));
+        assertThat(List.of(2L, 3L, 4L, 5L))
+                .anyMatch(seed -> !questionIds(quiz.deliver(seed, 0)).equals(order));
+    }
+
+    @Test
+    void sampleIdsAreTheDeliveredQuestions() {
+        StudentQuizDto delivery = quiz.deliver(7, 12);
+
+        assertThat(delivery.getQuestions()).hasSize(12);
+        assertThat(questionIds(delivery)).doesNotHaveDuplicates();
+        assertThat(quiz.sampleQuestionIds(7, 12))
+                .isSorted()
+                .containsExactlyInAnyOrder(questionIds(delivery).stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @Test
+    void shuffledQuestionsKeepTheirOwnOptions() {
+        Map<Long, List<Long>> expected = new HashMap<>();
+        for (QuestionDto question : source.getQuestions()) {
+            List<OptionDto> options = question.getOptions() != null ? question.getOptions() : List.of();
+            expected.put(question.getId(), options.stream().map(OptionDto::getId).sorted().toList());
+        }
+
+        StudentQuizDto delivery = quiz.deliver(11, 0);
+
+        assertThat(delivery.getQuestions()).hasSize(30);
+        for (StudentQuestionDto question : delivery.getQuestions()) {
+            List<Long> options = question.getOptions().stream().map(StudentOptionDto::getId).sorted().toList();
+            assertThat(options).isEqualTo(expected.get(question.getId()));
+        }
+    }
+
+    private static List<Long> questionIds(StudentQuizDto delivery) {
+        return delivery.getQuestions().stream().map(StudentQuestionDto::getId).collect(Collectors.toList());
+    }
+
+    private static QuizDto withIds(QuizDto quiz) {
+        quiz.setId(1L);
+        long next = 100;
+        for (QuestionDto question : quiz.getQuestions()) {
+            question.setId(next++);
+            if (question.getOptions() != null) {
+                for (OptionDto option : question.getOptions()) {
+                    option.setId(next++);
+                }
+            }
+        }
+        return quiz;
+    }
+}
@@ -0,0 +1,106 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.QuizDto;
+import com.qcmcreator.qcmapi.model.Quiz;
+import com.qcmcreator.qcmapi.model.User;
+import com.qcmcreator.qcmapi.seed.SyntheticQuizGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The loader must issue the same number of statements whatever the number of quizzes
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({QuizGraphLoader.class, SimpleMeterRegistry.class})
+class QuizGraphLoaderTest {
+
+    @Autowired
+    private QuizGraphLoader quizGraphLoader;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setUsername("author");
+        user.setEmail("author@example.com");
+        user.setPassword("{noop}secret");
+        entityManager.persist(user);
+    }
+
+    @Test
+    void loadAllByOwnerUsesConstantQueryCount() {
+        List<Quiz> one = persistQuizzes(1, 1);
+        long single = countStatements(() -> assertThat(quizGraphLoader.loadAllByOwner(user.getId())).hasSize(one.size()));
+
+        List<Quiz> more = persistQuizzes(25, 2);
+        long many = countStatements(() -> assertThat(quizGraphLoader.loadAllByOwner(user.getId())).hasSize(one.size() + more.size()));
+
+        assertThat(single).isEqualTo(2);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void loadByIdUsesConstantQueryCount() {
+        Quiz small = persistQuizzes(1, 1).get(0);
+        Quiz large = persistQuizzes(1, 3).get(0);
+
+        long single = countStatements(() -> assertThat(quizGraphLoader.loadById(small.getId())).isPresent());
+        long many = countStatements(() -> assertThat(quizGraphLoader.loadById(large.getId())).isPresent());
+
+        assertThat(single).isEqualTo(2);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void assembleUsesConstantQueryCount() {
+        List<Quiz> one = persistQuizzes(1, 1);
+        List<Quiz> more = persistQuizzes(25, 4);
+
+        long single = countStatements(() -> assertThat(quizGraphLoader.assemble(one)).hasSize(1));
+        long many = countStatements(() -> assertThat(quizGraphLoader.assemble(more)).hasSize(more.size()));
+
+        assertThat(single).isEqualTo(2);
+        assertThat(many).isEqualTo(single);
+    }
+
+    // Quizzes with 10 * scale questions, a fifth of them direct answer
+    private List<Quiz> persistQuizzes(int count, int scale) {
+        SyntheticQuizGenerator generator = new SyntheticQuizGenerator(count * 31L + scale);
+        List<Quiz> quizzes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            QuizDto quizDto = generator.quiz(10 * scale, 0.2);
+            quizzes.add(entityManager.persist(QuizService.newQuiz(quizDto, user)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return quizzes;
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
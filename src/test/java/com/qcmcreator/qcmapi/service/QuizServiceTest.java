@@ -0,0 +1,145 @@
+package com.qcmcreator.qcmapi.service;
+
+import com.qcmcreator.qcmapi.dto.OptionDto;
+import com.qcmcreator.qcmapi.dto.QuestionDto;
+import com.qcmcreator.qcmapi.model.Option;
+import com.qcmcreator.qcmapi.model.Question;
+import com.qcmcreator.qcmapi.model.QuestionType;
+import com.qcmcreator.qcmapi.model.Quiz;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The update diff on an in-memory graph: kept rows stay the same instances, so they keep their ids
+class QuizServiceTest {
+
+    private Quiz quiz;
+    private Question first;
+    private Question second;
+    private Question third;
+
+    @BeforeEach
+    void setUp() {
+        quiz = new Quiz();
+        first = question(1L, "First", 0, option(11L, "a", true, 0), option(12L, "b", false, 1));
+        second = question(2L, "Second", 1, option(21L, "c", true, 0));
+        third = question(3L, "Third", 2);
+        quiz.getQuestions().addAll(List.of(first, second, third));
+    }
+
+    @Test
+    void keptQuestionsKeepTheirIdsAndTakeTheRequestOrder() {
+        QuizService.mergeQuestions(quiz, List.of(
+                dto(3L, "Third"),
+                dto(1L, "First, reworded", optionDto(11L, "a", true), optionDto(12L, "b", false))));
+
+        assertThat(quiz.getQuestions()).containsExactly(third, first);
+        assertThat(quiz.getQuestions()).extracting(Question::getId).containsExactly(3L, 1L);
+        assertThat(quiz.getQuestions()).extracting(Question::getPosition).containsExactly(0, 1);
+        assertThat(first.getText()).isEqualTo("First, reworded");
+    }
+
+    @Test
+    void questionsMissingFromTheRequestAreRemoved() {
+        QuizService.mergeQuestions(quiz, List.of(dto(2L, "Second", optionDto(21L, "c", true))));
+
+        assertThat(quiz.getQuestions()).containsExactly(second);
+        assertThat(second.getPosition()).isZero();
+    }
+
+    @Test
+    void questionsWithoutAKnownIdAreAddedAsNewRows() {
+        QuizService.mergeQuestions(quiz, List.of(
+                dto(null, "Brand new"),
+                dto(1L, "First", optionDto(11L, "a", true), optionDto(12L, "b", false)),
+                // An id from another quiz is not taken over
+                dto(99L, "Foreign id")));
+
+        List<Question> questions = quiz.getQuestions();
+        assertThat(questions).hasSize(3);
+        assertThat(questions.get(0).getId()).isNull();
+        assertThat(questions.get(0).getPosition()).isZero();
+        assertThat(questions.get(0).getQuiz()).isSameAs(quiz);
+        assertThat(questions.get(1)).isSameAs(first);
+        assertThat(questions.get(2).getId()).isNull();
+        assertThat(questions.get(2).getText()).isEqualTo("Foreign id");
+        assertThat(questions.get(2).getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void optionsAreMergedTheSameWay() {
+        Option a = first.getOptions().get(0);
+        Option b = first.getOptions().get(1);
+
+        QuizService.mergeQuestions(quiz, List.of(
+                dto(1L, "First", optionDto(12L, "b", true), optionDto(null, "d", false))));
+
+        List<Option> options = first.getOptions();
+        assertThat(options).hasSize(2).doesNotContain(a);
+        assertThat(options.get(0)).isSameAs(b);
+        assertThat(b.getPosition()).isZero();
+        assertThat(b.isCorrect()).isTrue();
+        assertThat(options.get(1).getId()).isNull();
+        assertThat(options.get(1).getText()).isEqualTo("d");
+        assertThat(options.get(1).getPosition()).isEqualTo(1);
+        assertThat(options.get(1).getQuestion()).isSameAs(first);
+    }
+
+    @Test
+    void becomingADirectAnswerQuestionDropsTheOptions() {
+        QuestionDto direct = dto(1L, "First");
+        direct.setQuestionType(QuestionType.DIRECT_ANSWER);
+        direct.setDirectAnswer("answer");
+        direct.setOptions(List.of(optionDto(11L, "a", true)));
+
+        QuizService.mergeQuestions(quiz, List.of(direct));
+
+        assertThat(quiz.getQuestions()).containsExactly(first);
+        assertThat(first.getQuestionType()).isEqualTo(QuestionType.DIRECT_ANSWER);
+        assertThat(first.getDirectAnswer()).isEqualTo("answer");
+        assertThat(first.getOptions()).isEmpty();
+    }
+
+    private Question question(Long id, String text, int position, Option... options) {
+        Question question = new Question();
+        question.setId(id);
+        question.setText(text);
+        question.setPosition(position);
+        question.setQuestionType(QuestionType.MULTIPLE_CHOICE);
+        question.setQuiz(quiz);
+        for (Option option : options) {
+            option.setQuestion(question);
+            question.getOptions().add(option);
+        }
+        return question;
+    }
+
+    private static Option option(Long id, String text, boolean correct, int position) {
+        Option option = new Option();
+        option.setId(id);
+        option.setText(text);
+        option.setCorrect(correct);
+        option.setPosition(position);
+        return option;
+    }
+
+    private static QuestionDto dto(Long id, String text, OptionDto... options) {
+        QuestionDto question = new QuestionDto();
+        question.setId(id);
+        question.setText(text);
+        question.setOptions(new ArrayList<>(List.of(options)));
+        return question;
+    }
+
+    private static OptionDto optionDto(Long id, String text, boolean correct) {
+        OptionDto option = new OptionDto();
+        option.setId(id);
+        option.setText(text);
+        option.setCorrect(correct);
+        return option;
+    }
+}